@@ -0,0 +1,85 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the engines on typical and on adversarial inputs, i.e. the worst case of the naive and the Boyer-Moore
+ * searches. The adversarial text consists of a single repeated char.
+ * <ul>
+ *  Inputs:
+ *  <li>typical -> random lower case text and pattern, see {@link Texts}</li>
+ *  <li>mismatchAtStart -> text "aaaa...a", pattern "baaa...a": Boyer-Moore compares m - 1 chars per window</li>
+ *  <li>mismatchAtEnd -> text "aaaa...a", pattern "aaa...ab": The naive search compares m chars per window</li>
+ *  <li>periodic -> text "aaaa...a", pattern "aaa...a": Every position is an occurrence</li>
+ * </ul>
+ * The engines that are linear in the worst case (twoWay, kmp, shiftOr, ahoCorasick) keep their time on all inputs,
+ * the others slow down by up to the factor m.
+ * Run e.g. {@code java -jar target/benchmarks.jar AdversarialBenchmark -p patternLength=256}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class AdversarialBenchmark {
+    @Param({"naive", "boyerMoore", "boyerMooreGoodSuffix", "horspool", "sunday", "ahoCorasick", "vectorized", "shiftOr", "twoWay", "kmp"})
+    public String engine;
+
+    @Param({"typical", "mismatchAtStart", "mismatchAtEnd", "periodic"})
+    public String input;
+
+    @Param({"1048576"})
+    public int textSize;
+
+    @Param({"16", "256"})
+    public int patternLength;
+
+    private Engines.Searcher searcher;
+    private String pattern;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        String text;
+        String repeated = "a".repeat(patternLength - 1);
+        switch (input) {
+            case "typical" -> {
+                String characters = Texts.characters("lowerCaseLetters");
+                pattern = Texts.pattern(characters, patternLength, 42);
+                text = Texts.text(characters, textSize, pattern, 0.01, 7);
+            }
+            case "mismatchAtStart" -> {
+                pattern = "b" + repeated;
+                text = "a".repeat(textSize);
+            }
+            case "mismatchAtEnd" -> {
+                pattern = repeated + "b";
+                text = "a".repeat(textSize);
+            }
+            case "periodic" -> {
+                pattern = repeated + "a";
+                text = "a".repeat(textSize);
+            }
+            default -> throw new IllegalArgumentException("Unknown input: " + input);
+        }
+        searcher = Engines.create(engine, text, "lowerCaseLetters");
+    }
+
+    @Benchmark
+    public int occurences() throws Throwable {
+        return searcher.occurences(pattern);
+    }
+}
@@ -0,0 +1,158 @@
+package benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+
+/**
+ * Creates the searchers of the main module for the benchmarks.
+ * The searchers live in the default package, which can't be imported from a named package (and JMH refuses
+ * benchmarks in the default package), so they are looked up by name and called through a bound method handle.
+ *
+ * <ul>
+ *  Engines:
+ *  <li>naive -> NaiveSearch</li>
+ *  <li>advancedNaiveV1 -> AdvancedNaiveSearchV1</li>
+ *  <li>advancedNaiveV2 -> AdvancedNaiveSearchV2</li>
+ *  <li>boyerMoore -> BoyerMooreSearch</li>
+ *  <li>boyerMooreGoodSuffix -> BoyerMooreGoodSuffixSearch</li>
+ *  <li>horspool -> HorspoolSearch</li>
+ *  <li>sunday -> SundaySearch</li>
+ *  <li>ahoCorasick -> AhoCorasickSearch</li>
+ *  <li>vectorized -> VectorizedSearch</li>
+ *  <li>suffixArray -> SuffixArraySearch</li>
+ *  <li>fmIndex -> FmIndexSearch</li>
+ *  <li>packedText -> PackedTextSearch</li>
+ *  <li>adaptive -> AdaptiveSearch, calibrated once per alphabet</li>
+ *  <li>shiftOr -> ShiftOrSearch</li>
+ *  <li>twoWay -> TwoWaySearch</li>
+ *  <li>kmp -> KmpSearch</li>
+ *  <li>rabinKarp -> RabinKarpSearch</li>
+ *  <li>boyerMooreIgnoreCase -> BoyerMooreSearch ignoring the case of the letters</li>
+ * </ul>
+ * Multi pattern engines, see {@link #createMultiPattern(String, String, Collection)}:
+ * <ul>
+ *  <li>ahoCorasick -> AhoCorasickSearch.Automaton</li>
+ *  <li>rabinKarp -> RabinKarpSearch.Fingerprints</li>
+ * </ul>
+ */
+public final class Engines {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private Engines() {
+    }
+
+    /**
+     * A searcher bound to its text. Mirrors TextSearcher of the main module.
+     */
+    @FunctionalInterface
+    public interface Searcher {
+        int occurences(String pattern) throws Throwable;
+    }
+
+    /**
+     * A searcher bound to its text and to a compiled collection of patterns.
+     */
+    @FunctionalInterface
+    public interface MultiPatternSearcher {
+        /**
+         * @return number of occurrences per pattern
+         */
+        int[] occurences() throws Throwable;
+    }
+
+    /**
+     * @param engine name of the engine, see the class documentation
+     * @param text text the searcher is created with
+     * @param alphabet name of a BoyerMooreSearch.Alphabet value; only used by the engines that need it
+     * @return searcher calling occurences(String) of the created engine
+     */
+    public static Searcher create(String engine, String text, String alphabet) throws Throwable {
+        Object searcher = switch (engine) {
+            case "naive" -> construct("NaiveSearch", text);
+            case "advancedNaiveV1" -> construct("AdvancedNaiveSearchV1", text);
+            case "advancedNaiveV2" -> construct("AdvancedNaiveSearchV2", text);
+            case "boyerMoore" -> construct("BoyerMooreSearch", text, alphabet(alphabet));
+            case "boyerMooreGoodSuffix" -> construct("BoyerMooreGoodSuffixSearch", text, alphabet(alphabet));
+            case "horspool" -> construct("HorspoolSearch", text, alphabet(alphabet));
+            case "sunday" -> construct("SundaySearch", text, alphabet(alphabet));
+            case "ahoCorasick" -> construct("AhoCorasickSearch", text, alphabet(alphabet));
+            case "vectorized" -> construct("VectorizedSearch", text);
+            case "suffixArray" -> construct("SuffixArraySearch", text);
+            case "fmIndex" -> construct("FmIndexSearch", text);
+            case "packedText" -> construct("PackedTextSearch", text, alphabet(alphabet));
+            case "adaptive" -> construct("AdaptiveSearch", text, alphabet(alphabet));
+            case "shiftOr" -> construct("ShiftOrSearch", text, alphabet(alphabet));
+            case "twoWay" -> construct("TwoWaySearch", text);
+            case "kmp" -> construct("KmpSearch", text);
+            case "rabinKarp" -> construct("RabinKarpSearch", text);
+            case "boyerMooreIgnoreCase" -> construct("BoyerMooreSearch", text, alphabet(alphabet), true);
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        };
+        MethodHandle occurences = LOOKUP
+                .findVirtual(Class.forName("TextSearcher"), "occurences", MethodType.methodType(int.class, String.class))
+                .bindTo(searcher);
+        return pattern -> (int) occurences.invokeExact(pattern);
+    }
+
+    /**
+     * Compiles the patterns once, the searcher only counts them.
+     * @param engine ahoCorasick or rabinKarp
+     * @param text text the searcher is created with
+     * @param patterns patterns to compile; of the same length for rabinKarp
+     * @return searcher calling occurences(Automaton) or occurences(Fingerprints) of the created engine
+     */
+    public static MultiPatternSearcher createMultiPattern(String engine, String text, Collection<String> patterns) throws Throwable {
+        Object compiled;
+        Class<?> searcherType;
+        switch (engine) {
+            case "ahoCorasick" -> {
+                searcherType = Class.forName("AhoCorasickSearch");
+                Class<?> alphabetType = Class.forName("BoyerMooreSearch$Alphabet");
+                compiled = searcherType.getMethod("compile", Collection.class, alphabetType).invoke(null, patterns, null);
+            }
+            case "rabinKarp" -> {
+                searcherType = Class.forName("RabinKarpSearch");
+                compiled = searcherType.getMethod("compile", Collection.class).invoke(null, patterns);
+            }
+            default -> throw new IllegalArgumentException("Unknown multi pattern engine: " + engine);
+        }
+        Object searcher = construct(searcherType.getName(), text);
+        MethodHandle occurences = LOOKUP
+                .findVirtual(searcherType, "occurences", MethodType.methodType(int[].class, compiled.getClass()))
+                .bindTo(searcher)
+                .bindTo(compiled);
+        return () -> (int[]) occurences.invokeExact();
+    }
+
+    /**
+     * @return true if the engine rejects patterns containing a character twice
+     */
+    public static boolean needsUniquePattern(String engine) {
+        return engine.startsWith("advancedNaive");
+    }
+
+    /**
+     * @return true if the engine builds an index of the text, which needs up to 16 bytes per char while it is built
+     */
+    public static boolean buildsIndex(String engine) {
+        return engine.equals("suffixArray") || engine.equals("fmIndex");
+    }
+
+    private static Object construct(String className, Object... arguments) throws Throwable {
+        Class<?> type = Class.forName(className);
+        Class<?>[] parameterTypes = new Class<?>[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            // Flags are declared as primitive parameters
+            parameterTypes[i] = arguments[i] instanceof Boolean ? boolean.class : arguments[i].getClass();
+        }
+        return type.getConstructor(parameterTypes).newInstance(arguments);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object alphabet(String name) throws ClassNotFoundException {
+        Class<? extends Enum> alphabetType = (Class<? extends Enum>) Class.forName("BoyerMooreSearch$Alphabet");
+        return Enum.valueOf(alphabetType, name);
+    }
+}
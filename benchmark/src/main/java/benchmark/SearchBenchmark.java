@@ -0,0 +1,100 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the TextSearcher implementations under load.
+ * <ul>
+ *  Reported per engine and parameter combination:
+ *  <li>Throughput mode -> calls of occurences(String) per second and, via the "bytes" counter, scanned bytes per second</li>
+ *  <li>AverageTime mode -> latency of a single occurences(String) call</li>
+ * </ul>
+ * The advanced naive searches reject patterns with duplicate characters. Combinations where the pattern is longer
+ * than the alphabet therefore fail in the setup and are reported as errors by JMH, the remaining ones still run. <br>
+ * The texts of 1 GB need a big heap, which is why the fork runs with -Xmx8g. Building an index of such a text needs
+ * up to 16 GB, so the index engines fail in the setup for texts above {@link #MAX_INDEXED_TEXT_SIZE} as well.
+ * Run a subset with e.g. {@code java -jar target/benchmarks.jar -p textSize=1024,1048576 -p alphabet=onlyNumbers}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    /**
+     * Largest text the index engines are built for within the heap of the fork.
+     */
+    public static final int MAX_INDEXED_TEXT_SIZE = 1 << 28;
+
+    @Param({"naive", "advancedNaiveV1", "advancedNaiveV2", "boyerMoore", "boyerMooreGoodSuffix", "horspool", "sunday", "ahoCorasick", "vectorized", "suffixArray", "fmIndex", "packedText", "adaptive", "shiftOr", "twoWay", "kmp", "rabinKarp", "boyerMooreIgnoreCase"})
+    public String engine;
+
+    @Param({"1024", "1048576", "1073741824"})
+    public int textSize;
+
+    @Param({"4", "16", "64"})
+    public int patternLength;
+
+    @Param({"onlyNumbers", "upperCaseLetters", "lowerCaseLetters", "allLetters", "numbersAndAllLetters", "ascii", "unicode"})
+    public String alphabet;
+
+    @Param({"0.0", "0.01", "0.5"})
+    public double matchDensity;
+
+    private Engines.Searcher searcher;
+    private String pattern;
+    private int textLength;
+
+    /**
+     * Counts the scanned bytes. JMH reports it as a rate, i.e. bytes per second.
+     * Apart from the unicode alphabet the texts only contain characters below 128, so one character is one byte.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ScannedBytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        String characters = Texts.characters(alphabet);
+        pattern = Texts.pattern(characters, patternLength, 42);
+        if (Engines.needsUniquePattern(engine) && !Texts.hasUniqueCharacters(pattern)) {
+            throw new IllegalStateException("The alphabet " + alphabet + " has too few characters for a unique pattern of length "
+                    + patternLength + ", " + engine + " can't search it.");
+        }
+        if (Engines.buildsIndex(engine) && textSize > MAX_INDEXED_TEXT_SIZE) {
+            throw new IllegalStateException("The index of " + engine + " doesn't fit into the heap for a text of "
+                    + textSize + " chars, at most " + MAX_INDEXED_TEXT_SIZE + " are indexed.");
+        }
+        String text = Texts.text(characters, textSize, pattern, matchDensity, 7);
+        searcher = Engines.create(engine, text, alphabet);
+        textLength = text.length();
+    }
+
+    @Benchmark
+    public int occurences(ScannedBytes scanned) throws Throwable {
+        scanned.bytes += textLength;
+        return searcher.occurences(pattern);
+    }
+}
@@ -0,0 +1,97 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible texts and patterns over the alphabets of BoyerMooreSearch.
+ */
+public final class Texts {
+    private static final String NUMBERS = "0123456789";
+    private static final String UPPER_CASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String LOWER_CASE = "abcdefghijklmnopqrstuvwxyz";
+    private static final String SPECIAL = " ,";
+
+    private Texts() {
+    }
+
+    /**
+     * @param alphabet name of a BoyerMooreSearch.Alphabet value
+     * @return characters a text of this alphabet is generated from
+     */
+    public static String characters(String alphabet) {
+        return switch (alphabet) {
+            case "onlyNumbers" -> NUMBERS + SPECIAL;
+            case "upperCaseLetters" -> UPPER_CASE + SPECIAL;
+            case "lowerCaseLetters" -> LOWER_CASE + SPECIAL;
+            case "allLetters" -> UPPER_CASE + LOWER_CASE + SPECIAL;
+            case "numbersAndAllLetters" -> NUMBERS + UPPER_CASE + LOWER_CASE + SPECIAL;
+            case "ascii" -> {
+                StringBuilder ascii = new StringBuilder(128);
+                for (char c = 0; c < 128; c++) {
+                    ascii.append(c);
+                }
+                yield ascii.toString();
+            }
+            case "unicode" -> {
+                // Latin-1 letters plus CJK chars, which share the buckets of the unicode alphabet
+                StringBuilder unicode = new StringBuilder(UPPER_CASE + LOWER_CASE + SPECIAL);
+                for (char c = '\u00c0'; c <= '\u00ff'; c++) {
+                    unicode.append(c);
+                }
+                for (char c = '\u4e00'; c < '\u4e40'; c++) {
+                    unicode.append(c);
+                }
+                yield unicode.toString();
+            }
+            default -> throw new IllegalArgumentException("Unknown alphabet: " + alphabet);
+        };
+    }
+
+    /**
+     * Draws a pattern from the characters. As long as the pattern isn't longer than the alphabet
+     * all its characters are different, so the advanced naive searches accept it.
+     */
+    public static String pattern(String characters, int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        char[] pool = characters.toCharArray();
+        char[] pattern = new char[length];
+        for (int i = 0; i < length; i++) {
+            if (i < pool.length) {
+                // Partial Fisher-Yates shuffle -> unique characters
+                int j = i + random.nextInt(pool.length - i);
+                char swap = pool[i];
+                pool[i] = pool[j];
+                pool[j] = swap;
+                pattern[i] = pool[i];
+            }
+            else {
+                pattern[i] = pool[random.nextInt(pool.length)];
+            }
+        }
+        return new String(pattern);
+    }
+
+    /**
+     * Random text over the characters with the pattern planted into it.
+     * @param matchDensity probability that a pattern sized slot of the text is replaced with the pattern
+     */
+    public static String text(String characters, int length, String pattern, double matchDensity, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = characters.charAt(random.nextInt(characters.length()));
+        }
+        if (matchDensity > 0) {
+            for (int slot = 0; slot + pattern.length() <= length; slot += pattern.length()) {
+                if (random.nextDouble() < matchDensity) {
+                    pattern.getChars(0, pattern.length(), text, slot);
+                }
+            }
+        }
+        return new String(text);
+    }
+
+    public static boolean hasUniqueCharacters(String pattern) {
+        return pattern.chars().distinct().count() == pattern.length();
+    }
+}
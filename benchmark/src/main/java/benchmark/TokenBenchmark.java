@@ -0,0 +1,73 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the multi pattern engines on many fixed-length tokens, e.g. IDs or hashes, see
+ * {@link Engines#createMultiPattern(String, String, java.util.Collection)}.
+ * The tokens are random strings of hex digits; one in thousand positions of the text starts a token.
+ * The patterns are compiled once per trial, only the counting pass is measured.
+ * Run e.g. {@code java -jar target/benchmarks.jar TokenBenchmark -p tokens=100000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+    @Param({"ahoCorasick", "rabinKarp"})
+    public String engine;
+
+    @Param({"1000", "100000"})
+    public int tokens;
+
+    @Param({"16", "40"})
+    public int tokenLength;
+
+    @Param({"1048576"})
+    public int textSize;
+
+    private Engines.MultiPatternSearcher searcher;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        String characters = "0123456789abcdef";
+        SplittableRandom random = new SplittableRandom(11);
+        List<String> patterns = new ArrayList<>(tokens);
+        for (int i = 0; i < tokens; i++) {
+            char[] token = new char[tokenLength];
+            for (int j = 0; j < tokenLength; j++) {
+                token[j] = characters.charAt(random.nextInt(characters.length()));
+            }
+            patterns.add(new String(token));
+        }
+        StringBuilder text = new StringBuilder(Texts.text(characters, textSize, patterns.get(0), 0.0, 7));
+        for (int i = 0; i < textSize / 1000; i++) {
+            int position = random.nextInt(textSize - tokenLength);
+            text.replace(position, position + tokenLength, patterns.get(random.nextInt(tokens)));
+        }
+        searcher = Engines.createMultiPattern(engine, text.toString(), patterns);
+    }
+
+    @Benchmark
+    public int[] occurences() throws Throwable {
+        return searcher.occurences();
+    }
+}
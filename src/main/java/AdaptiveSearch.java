@@ -0,0 +1,433 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Facade choosing the fastest valid engine per query. <br>
+ * The choice depends on the pattern length, whether all chars of the pattern are different, the alphabet and the
+ * length of the text. The advanced naive search is only chosen for patterns with different chars. Such a pattern
+ * can't overlap itself, so its occurrences are the same as the overlapping ones of the other engines.
+ * Therefore all queries count overlapping occurrences, like NaiveSearch.
+ * <p>
+ * Which engine is the fastest depends on the machine, so the choice is taken from a {@link Profile}. A profile is
+ * measured by a short calibration on a random text of the alphabet or loaded from a file saved earlier.
+ * The engines are created when they are chosen for the first time.
+ * </p>
+ * <p>
+ * Without {@code --add-modules jdk.incubator.vector} the vectorized engine can't be loaded. Then the calibration
+ * leaves it out and a loaded profile uses the Boyer-Moore search instead, so the facade only uses scalar engines.
+ * </p>
+ */
+public class AdaptiveSearch implements TextSearcher {
+    private final String text;
+    private final BoyerMooreSearch.Alphabet alphabetType;
+    private final Profile profile;
+    private final TextSearcher[] engines = new TextSearcher[Engine.values().length];
+
+    /**
+     * Engines the facade chooses from. All of them find the same occurrences for the patterns they are chosen for.
+     */
+    public enum Engine {
+        naive,
+        advancedNaiveV1,
+        kmp,
+        boyerMoore,
+        horspool,
+        sunday,
+        vectorized,
+        shiftOr;
+
+        // The Vector API is an incubator module, VectorizedSearch only loads if the module was added at startup
+        static final boolean VECTOR_API = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        /**
+         * @return true if the engine can be loaded in this JVM
+         */
+        public boolean isAvailable() {
+            return isAvailable(VECTOR_API);
+        }
+
+        boolean isAvailable(boolean vectorApi) {
+            return this != vectorized || vectorApi;
+        }
+
+        /**
+         * @return this engine, or a scalar engine finding the same occurrences if this one can't be loaded
+         */
+        Engine orFallback(boolean vectorApi) {
+            return isAvailable(vectorApi) ? this : boyerMoore;
+        }
+
+        /**
+         * @return true if the engine finds all occurrences of the pattern
+         */
+        public boolean accepts(boolean uniquePattern) {
+            return this != advancedNaiveV1 || uniquePattern;
+        }
+
+        TextSearcher create(String text, BoyerMooreSearch.Alphabet alphabetType) {
+            return switch (this) {
+                case naive -> new NaiveSearch(text);
+                case advancedNaiveV1 -> new AdvancedNaiveSearchV1(text);
+                case kmp -> new KmpSearch(text);
+                case boyerMoore -> new BoyerMooreSearch(text, alphabetType);
+                case horspool -> new HorspoolSearch(text, alphabetType);
+                case sunday -> new SundaySearch(text, alphabetType);
+                case vectorized -> new VectorizedSearch(text);
+                case shiftOr -> new ShiftOrSearch(text, alphabetType);
+            };
+        }
+    }
+
+    /**
+     * Fastest engine per class of pattern length, separately for patterns with different chars and for all other
+     * patterns, plus the text length up to which the naive search wins anyway. Valid for one alphabet.
+     * Immutable, can be saved as properties and loaded again.
+     */
+    public static final class Profile {
+        /**
+         * Lower bounds of the classes of pattern length. A class reaches up to the next bound.
+         */
+        static final int[] PATTERN_LENGTHS = {1, 2, 4, 8, 16, 32, 64};
+
+        private static final int CALIBRATION_TEXT_LENGTH = 1 << 16;
+        private static final int CALIBRATION_WARM_UP_ROUNDS = 5;
+        private static final int CALIBRATION_ROUNDS = 5;
+        private static final int[] CALIBRATION_SHORT_TEXT_LENGTHS = {64, 128, 256, 512, 1024, 2048, 4096};
+        // Profiles of the convenience constructor, calibrated once per alphabet
+        private static final Map<BoyerMooreSearch.Alphabet, Profile> CALIBRATED = new EnumMap<>(BoyerMooreSearch.Alphabet.class);
+
+        private final BoyerMooreSearch.Alphabet alphabetType;
+        private final int shortTextLength;
+        private final Engine[] uniquePatterns;
+        private final Engine[] otherPatterns;
+
+        /**
+         * @param alphabetType alphabet the profile is valid for
+         * @param shortTextLength texts up to this length are searched naively
+         * @param uniquePatterns engine per class of pattern length for patterns with different chars
+         * @param otherPatterns engine per class of pattern length for all other patterns
+         */
+        public Profile(BoyerMooreSearch.Alphabet alphabetType, int shortTextLength, Engine[] uniquePatterns, Engine[] otherPatterns) {
+            if (alphabetType == null) {
+                throw new IllegalArgumentException("An alphabet needs to be chosen. Null is not valid.");
+            }
+            if (uniquePatterns.length != PATTERN_LENGTHS.length || otherPatterns.length != PATTERN_LENGTHS.length) {
+                throw new IllegalArgumentException("An engine needs to be chosen for each of the " + PATTERN_LENGTHS.length
+                        + " classes of pattern length.");
+            }
+            for (int i = 0; i < PATTERN_LENGTHS.length; i++) {
+                if (uniquePatterns[i] == null || otherPatterns[i] == null || !otherPatterns[i].accepts(false)) {
+                    throw new IllegalArgumentException("The engine for patterns of length " + PATTERN_LENGTHS[i]
+                            + " is missing or can't search every pattern.");
+                }
+            }
+            this.alphabetType = alphabetType;
+            this.shortTextLength = shortTextLength;
+            this.uniquePatterns = uniquePatterns.clone();
+            this.otherPatterns = otherPatterns.clone();
+        }
+
+        /**
+         * Measures the available engines on a random text of the alphabet. Takes up to a second, mostly for the warm
+         * up of the JIT.
+         * @param alphabetType
+         * @return profile of this machine for the alphabet
+         */
+        public static Profile calibrate(BoyerMooreSearch.Alphabet alphabetType) {
+            return calibrate(alphabetType, Engine.VECTOR_API);
+        }
+
+        static Profile calibrate(BoyerMooreSearch.Alphabet alphabetType, boolean vectorApi) {
+            char[] chars = charsOf(alphabetType);
+            SplittableRandom random = new SplittableRandom(42);
+            String text = randomText(chars, CALIBRATION_TEXT_LENGTH, random);
+
+            // Engines that can't be loaded stay null and are never measured
+            TextSearcher[] searchers = new TextSearcher[Engine.values().length];
+            for (Engine engine : Engine.values()) {
+                if (engine.isAvailable(vectorApi)) {
+                    searchers[engine.ordinal()] = engine.create(text, alphabetType);
+                }
+            }
+            Engine[] uniquePatterns = new Engine[PATTERN_LENGTHS.length];
+            Engine[] otherPatterns = new Engine[PATTERN_LENGTHS.length];
+            for (int i = 0; i < PATTERN_LENGTHS.length; i++) {
+                int patternLength = PATTERN_LENGTHS[i];
+                // A pattern taken from the text occurs at least once and has the repetitions of the text
+                int start = random.nextInt(text.length() - patternLength);
+                otherPatterns[i] = fastest(searchers, text.substring(start, start + patternLength), false);
+                uniquePatterns[i] = patternLength <= chars.length
+                        ? fastest(searchers, uniquePattern(chars, patternLength, random), true)
+                        : otherPatterns[i];
+            }
+
+            // Up to which text length the overhead of the fastest engine per query is larger than its gain
+            int shortTextLength = 0;
+            String pattern = text.substring(0, PATTERN_LENGTHS[2]);
+            Engine engine = otherPatterns[2];
+            for (int length : CALIBRATION_SHORT_TEXT_LENGTHS) {
+                String shortText = text.substring(0, length);
+                TextSearcher naiveSearcher = new NaiveSearch(shortText);
+                TextSearcher chosenSearcher = engine.create(shortText, alphabetType);
+                long naive = measure(() -> naiveSearcher.occurences(pattern));
+                long chosen = measure(() -> chosenSearcher.occurences(pattern));
+                if (chosen < naive) {
+                    break;
+                }
+                shortTextLength = length;
+            }
+            return new Profile(alphabetType, shortTextLength, uniquePatterns, otherPatterns);
+        }
+
+        /**
+         * Calibrates the alphabet only on the first call, later calls return the same profile.
+         * @param alphabetType
+         * @return profile of this machine for the alphabet
+         */
+        public static synchronized Profile calibrated(BoyerMooreSearch.Alphabet alphabetType) {
+            if (alphabetType == null) {
+                throw new IllegalArgumentException("An alphabet needs to be chosen. Null is not valid.");
+            }
+            Profile profile = CALIBRATED.get(alphabetType);
+            if (profile == null) {
+                profile = calibrate(alphabetType);
+                CALIBRATED.put(alphabetType, profile);
+            }
+            return profile;
+        }
+
+        /**
+         * @param uniquePattern true if all chars of the pattern are different
+         * @return engine for the query
+         */
+        public Engine select(int patternLength, boolean uniquePattern, int textLength) {
+            if (patternLength == 0 || textLength <= shortTextLength) {
+                return Engine.naive;
+            }
+            int lengthClass = PATTERN_LENGTHS.length - 1;
+            while (PATTERN_LENGTHS[lengthClass] > patternLength) {
+                lengthClass--;
+            }
+            return uniquePattern ? uniquePatterns[lengthClass] : otherPatterns[lengthClass];
+        }
+
+        public BoyerMooreSearch.Alphabet getAlphabetType() {
+            return alphabetType;
+        }
+
+        public int getShortTextLength() {
+            return shortTextLength;
+        }
+
+        public Properties toProperties() {
+            Properties properties = new Properties();
+            properties.setProperty("alphabet", alphabetType.name());
+            properties.setProperty("shortTextLength", String.valueOf(shortTextLength));
+            for (int i = 0; i < PATTERN_LENGTHS.length; i++) {
+                properties.setProperty("unique." + PATTERN_LENGTHS[i], uniquePatterns[i].name());
+                properties.setProperty("other." + PATTERN_LENGTHS[i], otherPatterns[i].name());
+            }
+            return properties;
+        }
+
+        /**
+         * An engine that can't be loaded in this JVM, like the vectorized one without its module, is replaced by a
+         * scalar engine.
+         * @param properties written by {@link #toProperties()}
+         * @return profile
+         */
+        public static Profile fromProperties(Properties properties) {
+            return fromProperties(properties, Engine.VECTOR_API);
+        }
+
+        static Profile fromProperties(Properties properties, boolean vectorApi) {
+            try {
+                BoyerMooreSearch.Alphabet alphabetType = BoyerMooreSearch.Alphabet.valueOf(required(properties, "alphabet"));
+                int shortTextLength = Integer.parseInt(required(properties, "shortTextLength"));
+                Engine[] uniquePatterns = new Engine[PATTERN_LENGTHS.length];
+                Engine[] otherPatterns = new Engine[PATTERN_LENGTHS.length];
+                for (int i = 0; i < PATTERN_LENGTHS.length; i++) {
+                    uniquePatterns[i] = Engine.valueOf(required(properties, "unique." + PATTERN_LENGTHS[i])).orFallback(vectorApi);
+                    otherPatterns[i] = Engine.valueOf(required(properties, "other." + PATTERN_LENGTHS[i])).orFallback(vectorApi);
+                }
+                return new Profile(alphabetType, shortTextLength, uniquePatterns, otherPatterns);
+            }
+            catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid profile: " + e.getMessage(), e);
+            }
+        }
+
+        public void save(Path file) throws IOException {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                toProperties().store(writer, "AdaptiveSearch profile");
+            }
+        }
+
+        public static Profile load(Path file) throws IOException {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            return fromProperties(properties);
+        }
+
+        @Override
+        public String toString() {
+            return "Profile{alphabet=" + alphabetType + ", shortTextLength=" + shortTextLength
+                    + ", uniquePatterns=" + Arrays.toString(uniquePatterns) + ", otherPatterns=" + Arrays.toString(otherPatterns) + "}";
+        }
+
+        private static String required(Properties properties, String key) {
+            String value = properties.getProperty(key);
+            if (value == null) {
+                throw new IllegalArgumentException("The key " + key + " is missing.");
+            }
+            return value.trim();
+        }
+
+        private static Engine fastest(TextSearcher[] searchers, String pattern, boolean uniquePattern) {
+            Engine fastest = Engine.naive;
+            long fastestTime = Long.MAX_VALUE;
+            for (Engine engine : Engine.values()) {
+                TextSearcher searcher = searchers[engine.ordinal()];
+                if (searcher == null || !engine.accepts(uniquePattern)) {
+                    continue;
+                }
+                long time = measure(() -> searcher.occurences(pattern));
+                if (time < fastestTime) {
+                    fastest = engine;
+                    fastestTime = time;
+                }
+            }
+            return fastest;
+        }
+
+        /**
+         * @return shortest time of the rounds in ns, after some rounds of warm up
+         */
+        private static long measure(Runnable query) {
+            for (int round = 0; round < CALIBRATION_WARM_UP_ROUNDS; round++) {
+                query.run();
+            }
+            long shortest = Long.MAX_VALUE;
+            for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+                long start = System.nanoTime();
+                query.run();
+                shortest = Math.min(shortest, System.nanoTime() - start);
+            }
+            return shortest;
+        }
+
+        /**
+         * @return chars with an own index in the alphabet; the Latin-1 chars for the unicode alphabet
+         */
+        private static char[] charsOf(BoyerMooreSearch.Alphabet alphabetType) {
+            StringBuilder chars = new StringBuilder();
+            for (char c = 0; c < 256; c++) {
+                if (alphabetType.contains(c)) {
+                    chars.append(c);
+                }
+            }
+            return chars.toString().toCharArray();
+        }
+
+        private static String randomText(char[] chars, int length, SplittableRandom random) {
+            char[] text = new char[length];
+            for (int i = 0; i < length; i++) {
+                text[i] = chars[random.nextInt(chars.length)];
+            }
+            return new String(text);
+        }
+
+        private static String uniquePattern(char[] chars, int length, SplittableRandom random) {
+            char[] pool = chars.clone();
+            // Partial Fisher-Yates shuffle -> different chars
+            for (int i = 0; i < length; i++) {
+                int j = i + random.nextInt(pool.length - i);
+                char swap = pool[i];
+                pool[i] = pool[j];
+                pool[j] = swap;
+            }
+            return new String(pool, 0, length);
+        }
+    }
+
+    /**
+     * Uses the profile calibrated once per alphabet, see {@link Profile#calibrated(BoyerMooreSearch.Alphabet)}.
+     * Only the first searcher of an alphabet waits for the calibration.
+     * @param text
+     * @param alphabetType alphabet of the text
+     */
+    public AdaptiveSearch(String text, BoyerMooreSearch.Alphabet alphabetType) {
+        this(text, Profile.calibrated(alphabetType));
+    }
+
+    /**
+     * @param text
+     * @param profile calibrated or loaded profile, its alphabet is the alphabet of the text
+     */
+    public AdaptiveSearch(String text, Profile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("A profile needs to be chosen. Null is not valid.");
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!profile.getAlphabetType().contains(text.charAt(i))) {
+                throw new IllegalArgumentException("The text consists of characters that are not included in the alphabet!");
+            }
+        }
+        this.text = text;
+        this.alphabetType = profile.getAlphabetType();
+        this.profile = profile;
+    }
+
+    /**
+     * @param pattern
+     * @return engine the query is answered by
+     */
+    public Engine select(String pattern) {
+        return profile.select(pattern.length(), AdvancedNaiveSearchV1.isDependencySatisfied(pattern), text.length());
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        return engine(select(pattern)).occurences(pattern);
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return engine(select(pattern)).indexOf(pattern, fromIndex);
+    }
+
+    /**
+     * Selects the engine only once for all calls.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        return engine(select(pattern)).matcher(pattern);
+    }
+
+    public Profile getProfile() {
+        return profile;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    private synchronized TextSearcher engine(Engine engine) {
+        if (engines[engine.ordinal()] == null) {
+            engines[engine.ordinal()] = engine.create(text, alphabetType);
+        }
+        return engines[engine.ordinal()];
+    }
+}
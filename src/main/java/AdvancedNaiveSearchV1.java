@@ -1,8 +1,8 @@
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Pattern searching algorithm with the dependency that all characters in the pattern have to be different.
+ * For any pattern, KmpSearch works the same way.
  * Goes in linear time over the text and compares every position with the corresponding letter in the pattern.
  * It keeps track of this letter in the positionInPattern variable.
  *
@@ -13,7 +13,11 @@ import java.util.Set;
  * <ul>
  */
 public class AdvancedNaiveSearchV1 implements TextSearcher {
+    // Up to this length the quadratic check of the dependency is cheaper than a bit set
+    private static final int SHORT_PATTERN_LENGTH = 32;
+
     String text;
+    private SearchProbe probe;
 
     public AdvancedNaiveSearchV1(String text) {
         this.text = text;
@@ -21,79 +25,161 @@ public class AdvancedNaiveSearchV1 implements TextSearcher {
 
     @Override
     public int occurences(String pattern) {
+        return occurences(pattern, SearchMetrics.probe(this.probe));
+    }
+
+    /**
+     * @param probe probe of the call, null to search unobserved
+     */
+    private int occurences(String pattern, SearchProbe probe) {
         if (!isDependencySatisfied(pattern)) {
             throw new IllegalArgumentException ("Dependency is not satisfied! At least two characters are similar in the pattern.");
         }
         else {
+            if (probe != null) {
+                probe.onStart(getClass().getSimpleName(), text.length(), pattern);
+            }
             int occurences = 0;
             int positionInPattern = 0;
             for (int counterInText = 0; counterInText < text.length(); counterInText++) {
-                if (text.charAt(counterInText) != pattern.charAt(positionInPattern)) {
-                    // No Match
+                positionInPattern = step(pattern, counterInText, positionInPattern, probe);
+                if (positionInPattern == pattern.length()) {
+                    // Whole pattern matched
+                    occurences++;
                     positionInPattern = 0;
                 }
-                if (text.charAt(counterInText) == pattern.charAt(positionInPattern)) {
-                    // Match
-                    if (positionInPattern == pattern.length() - 1) {
-                        // Whole pattern matched
-                        occurences++;
-                        positionInPattern = 0;
-                    } else {
-                        positionInPattern++;
-                    }
-                }
+            }
+            if (probe != null) {
+                probe.onEnd();
             }
             return occurences;
         }
     }
 
-    public void visualiseComparisons(String pattern) throws InterruptedException {
-        System.out.println(text);
-        String output = "^";
-        String space = " ";
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return matcher(pattern).applyAsInt(fromIndex);
+    }
 
-        int occurences = 0;
-        int positionInPattern = 0;
+    /**
+     * Checks the dependency only once for all calls.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        if (!isDependencySatisfied(pattern)) {
+            throw new IllegalArgumentException ("Dependency is not satisfied! At least two characters are similar in the pattern.");
+        }
+        return fromIndex -> search(pattern, fromIndex);
+    }
 
-        for (int counterInText = 0; counterInText < text.length(); counterInText++) {
-            System.out.print("\r" + output + " compared with " + pattern.charAt(positionInPattern) + "; occurences: " + occurences);
-            Thread.sleep(10000);
+    private int search(String pattern, int fromIndex) {
+        SearchProbe probe = this.probe;
+        int positionInPattern = 0;
+        for (int counterInText = Math.max(0, fromIndex); counterInText < text.length(); counterInText++) {
+            positionInPattern = step(pattern, counterInText, positionInPattern, probe);
+            if (positionInPattern == pattern.length()) {
+                // Whole pattern matched
+                return counterInText - positionInPattern + 1;
+            }
+        }
+        return -1;
+    }
 
-            if (text.charAt(counterInText) != pattern.charAt(positionInPattern)) {
-                // No Match
-                positionInPattern = 0;
-                System.out.print("\r" + output + " compared with " + pattern.charAt(positionInPattern) + "; occurences: " + occurences);
-                Thread.sleep(10000);
+    /**
+     * Compares one text char. After a mismatch the char is compared with the first char of the pattern again,
+     * all chars of the pattern are different, so no other alignment can match.
+     * @return number of matched pattern chars after the text char, the pattern length for an occurrence
+     */
+    private int step(String pattern, int counterInText, int positionInPattern, SearchProbe probe) {
+        boolean match = text.charAt(counterInText) == pattern.charAt(positionInPattern);
+        if (probe != null) {
+            probe.onComparison(counterInText, positionInPattern, match);
+        }
+        if (!match && positionInPattern > 0) {
+            // No Match -> Start the pattern at this char
+            if (probe != null) {
+                probe.onShift(counterInText - positionInPattern, positionInPattern);
             }
-            if (text.charAt(counterInText) == pattern.charAt(positionInPattern)) {
-                // Match
-                if (positionInPattern == pattern.length() - 1) {
-                    // Whole pattern matched
-                    occurences++;
-                    positionInPattern = 0;
-                } else {
-                    positionInPattern++;
+            positionInPattern = 0;
+            match = text.charAt(counterInText) == pattern.charAt(0);
+            if (probe != null) {
+                probe.onComparison(counterInText, 0, match);
+            }
+        }
+        if (match) {
+            positionInPattern++;
+            if (probe != null && positionInPattern == pattern.length()) {
+                probe.onMatch(counterInText - positionInPattern + 1);
+                if (counterInText < text.length() - 1) {
+                    probe.onShift(counterInText - positionInPattern + 1, positionInPattern);
                 }
             }
-
-            output = space + output;
+            return positionInPattern;
+        }
+        if (probe != null && counterInText < text.length() - 1) {
+            probe.onShift(counterInText, 1);
         }
+        return 0;
+    }
+
+    /**
+     * Observes steps of the searches, see {@link SearchProbe}.
+     * @param probe null to search unobserved
+     */
+    public void setProbe(SearchProbe probe) {
+        this.probe = probe;
+    }
+
+    public SearchProbe getProbe() {
+        return probe;
+    }
 
+    public void visualiseComparisons(String pattern) throws InterruptedException {
+        visualiseComparisons(pattern, 10000);
+    }
+
+    /**
+     * Searches the pattern at full speed while recording a {@link SearchTrace}, afterwards the steps are printed
+     * one by one.
+     * @param pattern
+     * @param delayMillis pause after every printed step
+     * @throws InterruptedException
+     */
+    public void visualiseComparisons(String pattern, long delayMillis) throws InterruptedException {
+        SearchTrace trace = new SearchTrace(SearchTrace.capacityFor(text.length(), pattern.length()));
+        // The probe of the searcher stays untouched, other threads may search at the same time
+        occurences(pattern, SearchMetrics.probe(SearchProbe.both(probe, trace)));
+        trace.visualise(text, pattern, System.out, delayMillis);
     }
 
     /**
      * Check if the dependency that all characters in the pattern are unique is satisfied.
+     * Short patterns compare every char with the previous ones, longer patterns mark the seen chars in a bit set.
+     * KmpSearch has no such dependency.
      * @param pattern
      * @return true if all patterns are unique, false if at least two characters are duplicate
      */
-    private boolean isDependencySatisfied(String pattern) {
-        Set<Character> seen = new HashSet<>();
+    static boolean isDependencySatisfied(String pattern) {
+        if (pattern.length() <= SHORT_PATTERN_LENGTH) {
+            for (int i = 1; i < pattern.length(); i++) {
+                if (pattern.lastIndexOf(pattern.charAt(i), i - 1) != -1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (pattern.length() > Character.MAX_VALUE + 1) {
+            // More chars than different chars exist
+            return false;
+        }
+        long[] seen = new long[(Character.MAX_VALUE + 1) / Long.SIZE];
         for (int i = 0; i < pattern.length(); i++) {
             char currentChar = pattern.charAt(i);
-            if (seen.contains(currentChar)) {
+            long bit = 1L << currentChar;
+            if ((seen[currentChar >>> 6] & bit) != 0) {
                 return false;
             }
-            seen.add(currentChar);
+            seen[currentChar >>> 6] |= bit;
         }
         return true;
     }
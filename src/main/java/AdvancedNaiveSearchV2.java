@@ -1,5 +1,4 @@
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Pattern searching algorithm with the dependency that all characters in the pattern have to be different.
@@ -14,6 +13,7 @@ import java.util.Set;
  */
 public class AdvancedNaiveSearchV2 implements TextSearcher{
     String text;
+    private SearchProbe probe;
 
     public AdvancedNaiveSearchV2(String text) {
         this.text = text;
@@ -21,17 +21,35 @@ public class AdvancedNaiveSearchV2 implements TextSearcher{
 
     @Override
     public int occurences(String pattern) {
-        if (!isDependencySatisfied(pattern)) {
+        return occurences(pattern, SearchMetrics.probe(this.probe));
+    }
+
+    /**
+     * @param probe probe of the call, null to search unobserved
+     */
+    private int occurences(String pattern, SearchProbe probe) {
+        if (!AdvancedNaiveSearchV1.isDependencySatisfied(pattern)) {
             throw new IllegalArgumentException ("Dependency is not satisfied! At least two characters are similar in the pattern.");
         }
         else {
+            if (probe != null) {
+                probe.onStart(getClass().getSimpleName(), text.length(), pattern);
+            }
             int occurrences = 0;
+            int lastStart = text.length() - pattern.length();
 
-            for (int counterInText = 0; counterInText <= (text.length() - pattern.length()); counterInText++) {
+            for (int counterInText = 0; counterInText <= lastStart; counterInText++) {
                 boolean match = true;
                 for (int counterInPattern = 0; counterInPattern < pattern.length(); counterInPattern++) {
-                    if (text.charAt(counterInText + counterInPattern) != pattern.charAt(counterInPattern)) {
+                    boolean equal = text.charAt(counterInText + counterInPattern) == pattern.charAt(counterInPattern);
+                    if (probe != null) {
+                        probe.onComparison(counterInText + counterInPattern, counterInPattern, equal);
+                    }
+                    if (!equal) {
                         match = false;
+                        if (probe != null) {
+                            onShift(probe, counterInText, Math.max(1, counterInPattern), lastStart);
+                        }
                         // Jump over all matched characters
                         if (counterInPattern > 0) {
                             // The one is subtracted because the for-loop will increment counterInText too
@@ -42,64 +60,105 @@ public class AdvancedNaiveSearchV2 implements TextSearcher{
                 }
                 if (match) {
                     occurrences++;
+                    if (probe != null) {
+                        probe.onMatch(counterInText);
+                        onShift(probe, counterInText, Math.max(1, pattern.length()), lastStart);
+                    }
                     // Jump over matched letters
                     counterInText += pattern.length() - 1;
                 }
             }
+            if (probe != null) {
+                probe.onEnd();
+            }
             return occurrences;
         }
     }
 
-    public void visualiseComparisons(String pattern) throws InterruptedException {
-        System.out.println(text);
-        String output = pattern;
-        String space = " ";
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return matcher(pattern).applyAsInt(fromIndex);
+    }
 
-        int occurrences = 0;
+    /**
+     * Checks the dependency only once for all calls.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        if (!AdvancedNaiveSearchV1.isDependencySatisfied(pattern)) {
+            throw new IllegalArgumentException ("Dependency is not satisfied! At least two characters are similar in the pattern.");
+        }
+        return fromIndex -> search(pattern, fromIndex);
+    }
 
-        for (int counterInText = 0; counterInText <= (text.length() - pattern.length()); counterInText++) {
+    private int search(String pattern, int fromIndex) {
+        SearchProbe probe = this.probe;
+        int lastStart = text.length() - pattern.length();
+        for (int counterInText = Math.max(0, fromIndex); counterInText <= lastStart; counterInText++) {
             boolean match = true;
-
             for (int counterInPattern = 0; counterInPattern < pattern.length(); counterInPattern++) {
-                System.out.print("\r" + output + " comparisons: " + counterInPattern + "; occurrences: " + occurrences);
-                Thread.sleep(10000);
-                if (text.charAt(counterInText + counterInPattern) != pattern.charAt(counterInPattern)) {
+                boolean equal = text.charAt(counterInText + counterInPattern) == pattern.charAt(counterInPattern);
+                if (probe != null) {
+                    probe.onComparison(counterInText + counterInPattern, counterInPattern, equal);
+                }
+                if (!equal) {
                     match = false;
+                    if (probe != null) {
+                        onShift(probe, counterInText, Math.max(1, counterInPattern), lastStart);
+                    }
+                    // Jump over all matched characters
                     if (counterInPattern > 0) {
                         counterInText += counterInPattern - 1;
-                        for (int i = 0; i < counterInPattern - 1; i++) {
-                            output = space + output;
-                        }
                     }
                     break;
                 }
             }
             if (match) {
-                occurrences++;
-                counterInText += pattern.length() - 1;
-                for (int i = 0; i < pattern.length() - 1; i++) {
-                    output = space + output;
+                if (probe != null) {
+                    probe.onMatch(counterInText);
                 }
+                return counterInText;
             }
+        }
+        return -1;
+    }
+
+    /**
+     * Observes steps of the searches, see {@link SearchProbe}.
+     * @param probe null to search unobserved
+     */
+    public void setProbe(SearchProbe probe) {
+        this.probe = probe;
+    }
 
-            output = space + output;
+    public SearchProbe getProbe() {
+        return probe;
+    }
+
+    /**
+     * Reports the shift if the pattern still fits into the text afterwards.
+     */
+    private static void onShift(SearchProbe probe, int windowStart, int distance, int lastStart) {
+        if (windowStart + distance <= lastStart) {
+            probe.onShift(windowStart, distance);
         }
     }
 
+    public void visualiseComparisons(String pattern) throws InterruptedException {
+        visualiseComparisons(pattern, 10000);
+    }
+
     /**
-     * Check if the dependency that all characters in the pattern are unique is satisfied.
+     * Searches the pattern at full speed while recording a {@link SearchTrace}, afterwards the steps are printed
+     * one by one.
      * @param pattern
-     * @return true if all patterns are unique. False if characters are duplicate
+     * @param delayMillis pause after every printed step
+     * @throws InterruptedException
      */
-    private boolean isDependencySatisfied(String pattern) {
-        Set<Character> seen = new HashSet<>();
-        for (int i = 0; i < pattern.length(); i++) {
-            char currentChar = pattern.charAt(i);
-            if (seen.contains(currentChar)) {
-                return false;
-            }
-            seen.add(currentChar);
-        }
-        return true;
+    public void visualiseComparisons(String pattern, long delayMillis) throws InterruptedException {
+        SearchTrace trace = new SearchTrace(SearchTrace.capacityFor(text.length(), pattern.length()));
+        // The probe of the searcher stays untouched, other threads may search at the same time
+        occurences(pattern, SearchMetrics.probe(SearchProbe.both(probe, trace)));
+        trace.visualise(text, pattern, System.out, delayMillis);
     }
 }
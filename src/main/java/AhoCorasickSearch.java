@@ -0,0 +1,338 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Multi pattern searching algorithm by Aho and Corasick. <br>
+ * All patterns are compiled into one automaton: a trie of the patterns whose missing transitions are filled
+ * with the failure links, so every text char is one table lookup. A single pass over the text finds all
+ * occurrences of all patterns, overlapping ones included.
+ * <p>
+ * The transitions are stored in one int array with a row of ∑ entries per state. With a known alphabet
+ * ∑ is the size of the BoyerMooreSearch.Alphabet, otherwise the chars of the patterns are numbered densely
+ * and all other chars share one symbol. The unicode alphabet is treated like an unknown one, because the automaton
+ * needs a distinct symbol per char.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; sum of the pattern lengths = M; alphabet length = ∑; number of occurrences = z;</li>
+ *  <li>preparation effort = O(M * ∑)</li>
+ *  <li>bc, wc, ac = O(n + z)</li>
+ * </ul>
+ */
+public class AhoCorasickSearch implements TextSearcher {
+    private final String text;
+    private final BoyerMooreSearch.Alphabet alphabetType;
+
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * @param patternIndex index of the pattern in the compiled collection
+         * @param position start of the occurrence in the text
+         */
+        void onMatch(int patternIndex, int position);
+    }
+
+    /**
+     * Immutable automaton of a collection of patterns. Reusable for other texts and threads.
+     */
+    public static final class Automaton {
+        private final String[] patterns;
+        private final BoyerMooreSearch.Alphabet alphabetType;
+        // Maps a char to its symbol if no alphabet is known. Index 0 is used for all chars not in the patterns
+        private final int[] symbols;
+        private final int sizeOfAlphabet;
+        private final int[] transitions;
+        // Pattern ending in a state, -1 if none
+        private final int[] output;
+        // Next state on the failure path that has an output, -1 if none
+        private final int[] outputLink;
+        // Index of the first equal pattern, duplicates are only inserted once
+        private final int[] firstEqualPattern;
+
+        private Automaton(String[] patterns, BoyerMooreSearch.Alphabet alphabetType) {
+            this.patterns = patterns;
+            this.alphabetType = alphabetType;
+            this.firstEqualPattern = new int[patterns.length];
+
+            int maxStates = 1;
+            int maxChar = 0;
+            for (String pattern : patterns) {
+                if (pattern.isEmpty()) {
+                    throw new IllegalArgumentException("Empty patterns can't be searched.");
+                }
+                maxStates += pattern.length();
+                for (int i = 0; i < pattern.length(); i++) {
+                    maxChar = Math.max(maxChar, pattern.charAt(i));
+                }
+            }
+            if (alphabetType != null && !alphabetType.hasSharedIndices()) {
+                symbols = null;
+                sizeOfAlphabet = alphabetType.size();
+            }
+            else {
+                symbols = new int[maxChar + 1];
+                int nextSymbol = 1;
+                for (String pattern : patterns) {
+                    for (int i = 0; i < pattern.length(); i++) {
+                        if (symbols[pattern.charAt(i)] == 0) {
+                            symbols[pattern.charAt(i)] = nextSymbol++;
+                        }
+                    }
+                }
+                sizeOfAlphabet = nextSymbol;
+            }
+
+            int[] goTo = new int[maxStates * sizeOfAlphabet];
+            Arrays.fill(goTo, -1);
+            int[] stateOutput = new int[maxStates];
+            Arrays.fill(stateOutput, -1);
+            int states = insertPatterns(goTo, stateOutput);
+
+            this.transitions = Arrays.copyOf(goTo, states * sizeOfAlphabet);
+            this.output = Arrays.copyOf(stateOutput, states);
+            this.outputLink = new int[states];
+            fillFailureTransitions(states);
+        }
+
+        /**
+         * Builds the trie of the patterns.
+         * @return number of states
+         */
+        private int insertPatterns(int[] goTo, int[] stateOutput) {
+            int states = 1;
+            Map<String, Integer> seen = new HashMap<>();
+            for (int patternIndex = 0; patternIndex < patterns.length; patternIndex++) {
+                String pattern = patterns[patternIndex];
+                Integer equalPattern = seen.putIfAbsent(pattern, patternIndex);
+                firstEqualPattern[patternIndex] = equalPattern != null ? equalPattern : patternIndex;
+                if (equalPattern != null || !isSearchable(pattern)) {
+                    continue;
+                }
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    int transition = state * sizeOfAlphabet + symbol(pattern.charAt(i));
+                    if (goTo[transition] == -1) {
+                        goTo[transition] = states++;
+                    }
+                    state = goTo[transition];
+                }
+                stateOutput[state] = patternIndex;
+            }
+            return states;
+        }
+
+        /**
+         * Breadth first over the trie: A missing transition of a state is the transition of its failure state,
+         * which is closer to the root and therefore already complete.
+         */
+        private void fillFailureTransitions(int states) {
+            int[] failure = new int[states];
+            int[] queue = new int[states];
+            int head = 0;
+            int tail = 0;
+
+            outputLink[0] = -1;
+            for (int symbol = 0; symbol < sizeOfAlphabet; symbol++) {
+                int next = transitions[symbol];
+                if (next == -1) {
+                    transitions[symbol] = 0;
+                }
+                else {
+                    failure[next] = 0;
+                    outputLink[next] = -1;
+                    queue[tail++] = next;
+                }
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                for (int symbol = 0; symbol < sizeOfAlphabet; symbol++) {
+                    int transition = state * sizeOfAlphabet + symbol;
+                    int next = transitions[transition];
+                    int fallback = transitions[failure[state] * sizeOfAlphabet + symbol];
+                    if (next == -1) {
+                        transitions[transition] = fallback;
+                    }
+                    else {
+                        failure[next] = fallback;
+                        outputLink[next] = output[fallback] != -1 ? fallback : outputLink[fallback];
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+
+        private boolean isSearchable(String pattern) {
+            if (alphabetType == null) {
+                return true;
+            }
+            for (int i = 0; i < pattern.length(); i++) {
+                if (!alphabetType.contains(pattern.charAt(i))) {
+                    // Can't occur in a valid text
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int symbol(char c) {
+            if (symbols == null) {
+                return alphabetType.index(c);
+            }
+            return c < symbols.length ? symbols[c] : 0;
+        }
+
+        public int numberOfPatterns() {
+            return patterns.length;
+        }
+
+        public String getPattern(int patternIndex) {
+            return patterns[patternIndex];
+        }
+
+        public BoyerMooreSearch.Alphabet getAlphabetType() {
+            return alphabetType;
+        }
+
+        public int numberOfStates() {
+            return output.length;
+        }
+    }
+
+    /**
+     * The alphabet is derived from the patterns.
+     * @param text
+     */
+    public AhoCorasickSearch(String text) {
+        this.text = text;
+        this.alphabetType = null;
+    }
+
+    /**
+     * The automaton uses a row of alphabet size per state.
+     * @param text
+     * @param alphabetType alphabet of the text
+     */
+    public AhoCorasickSearch(String text, BoyerMooreSearch.Alphabet alphabetType) {
+        if (alphabetType == null) {
+            throw new IllegalArgumentException("An alphabet needs to be chosen. Null is not valid.");
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!alphabetType.contains(text.charAt(i))) {
+                throw new IllegalArgumentException("The text consists of characters that are not included in the alphabet!");
+            }
+        }
+        this.text = text;
+        this.alphabetType = alphabetType;
+    }
+
+    /**
+     * @param patterns
+     * @return automaton for the alphabet of this searcher
+     */
+    public Automaton compile(Collection<String> patterns) {
+        return compile(patterns, alphabetType);
+    }
+
+    /**
+     * @param patterns non-empty patterns, duplicates are allowed
+     * @param alphabetType alphabet of the texts; null to derive it from the patterns
+     * @return automaton of all patterns
+     */
+    public static Automaton compile(Collection<String> patterns, BoyerMooreSearch.Alphabet alphabetType) {
+        return new Automaton(patterns.toArray(new String[0]), alphabetType);
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        return occurences(compile(List.of(pattern)))[0];
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return indexOf(compile(List.of(pattern)), fromIndex);
+    }
+
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        Automaton automaton = compile(List.of(pattern));
+        return fromIndex -> indexOf(automaton, fromIndex);
+    }
+
+    /**
+     * Searches from fromIndex until the first occurrence of any pattern is complete.
+     * @param automaton automaton compiled for the alphabet of this searcher
+     * @param fromIndex first possible start of an occurrence
+     * @return start of the occurrence ending first, -1 if there is none
+     */
+    public int indexOf(Automaton automaton, int fromIndex) {
+        checkAlphabet(automaton);
+        int state = 0;
+        for (int counterInText = Math.max(0, fromIndex); counterInText < text.length(); counterInText++) {
+            state = automaton.transitions[state * automaton.sizeOfAlphabet + automaton.symbol(text.charAt(counterInText))];
+            int match = automaton.output[state] != -1 ? state : automaton.outputLink[state];
+            if (match != -1) {
+                // The longest pattern ending here starts first
+                return counterInText - automaton.patterns[automaton.output[match]].length() + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts all patterns in a single pass over the text.
+     * @param automaton automaton compiled for the alphabet of this searcher
+     * @return number of occurrences per pattern, in the order of the compiled collection
+     */
+    public int[] occurences(Automaton automaton) {
+        checkAlphabet(automaton);
+        int[] occurrences = new int[automaton.numberOfPatterns()];
+        forEachMatch(automaton, (patternIndex, position) -> occurrences[patternIndex]++);
+        // Duplicates were only inserted once
+        for (int i = 0; i < occurrences.length; i++) {
+            occurrences[i] = occurrences[automaton.firstEqualPattern[i]];
+        }
+        return occurrences;
+    }
+
+    /**
+     * Reports all occurrences of all patterns in a single pass over the text, ordered by their end in the text.
+     * Duplicate patterns are reported with the index of their first occurrence in the compiled collection.
+     * @param automaton automaton compiled for the alphabet of this searcher
+     * @param listener called for every occurrence
+     */
+    public void forEachMatch(Automaton automaton, MatchListener listener) {
+        checkAlphabet(automaton);
+        int[] transitions = automaton.transitions;
+        int[] output = automaton.output;
+        int[] outputLink = automaton.outputLink;
+        int sizeOfAlphabet = automaton.sizeOfAlphabet;
+
+        int state = 0;
+        for (int counterInText = 0; counterInText < text.length(); counterInText++) {
+            state = transitions[state * sizeOfAlphabet + automaton.symbol(text.charAt(counterInText))];
+            // Report the pattern ending here and all patterns that are suffixes of it
+            int match = output[state] != -1 ? state : outputLink[state];
+            while (match != -1) {
+                int patternIndex = output[match];
+                listener.onMatch(patternIndex, counterInText - automaton.patterns[patternIndex].length() + 1);
+                match = outputLink[match];
+            }
+        }
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    private void checkAlphabet(Automaton automaton) {
+        if (automaton.getAlphabetType() != alphabetType) {
+            throw new IllegalArgumentException("The patterns were compiled for the alphabet " + automaton.getAlphabetType()
+                    + " but the text uses " + alphabetType + ".");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Standing queries over an append-only text, e.g. a log that is tailed. <br>
+ * Patterns are registered once, afterwards their counts are updated with every appended chunk. An append only
+ * searches the new chars plus the last m - 1 chars before them, where an occurrence crossing the old end of the text
+ * can start. Every pattern remembers the first start it hasn't searched yet, so no occurrence is counted twice.
+ * The work of an append depends on the length of the chunk and the number of patterns, not on the length of the text.
+ * <p>
+ * The patterns are compiled once for the Boyer-Moore search of the alphabet. Every query chooses whether overlapping
+ * occurrences are counted; a non-overlapping query continues m chars behind an occurrence, across appends too.
+ * Appends and registrations are synchronized, the counts can be read by any thread.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>chunk length = c; longest pattern length = M; number of patterns = k;</li>
+ *  <li>To validate the chunk = O(c)</li>
+ *  <li>append = O(k * (c + M)) in the worst case, the Boyer-Moore skips make it sublinear on average</li>
+ * </ul>
+ */
+public class AppendOnlySearch {
+    private final BoyerMooreSearch.Alphabet alphabetType;
+    private final StringBuilder text = new StringBuilder();
+    private final List<StandingQuery> queries = new ArrayList<>();
+
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * Called by the appending thread for every new occurrence.
+         * @param query query of the pattern
+         * @param position start of the occurrence in the text
+         */
+        void onMatch(StandingQuery query, int position);
+    }
+
+    /**
+     * Registered pattern with its count.
+     */
+    public static final class StandingQuery {
+        private final BoyerMooreSearch.CompiledPattern compiledPattern;
+        private final TextSearcher.Overlap overlap;
+        private final MatchListener listener;
+        // First start of an occurrence that wasn't searched yet
+        private int nextStart;
+        private volatile long occurrences;
+
+        private StandingQuery(BoyerMooreSearch.CompiledPattern compiledPattern, TextSearcher.Overlap overlap, MatchListener listener) {
+            this.compiledPattern = compiledPattern;
+            this.overlap = overlap;
+            this.listener = listener;
+        }
+
+        public String getPattern() {
+            return compiledPattern.getPattern();
+        }
+
+        public TextSearcher.Overlap getOverlap() {
+            return overlap;
+        }
+
+        /**
+         * @return number of occurrences in the text appended so far
+         */
+        public long occurrences() {
+            return occurrences;
+        }
+
+        /**
+         * Searches the starts from nextStart on. The window holds the text from windowStart to its end.
+         */
+        private void search(BoyerMooreSearch window, int windowStart, int textLength) {
+            int patternLength = compiledPattern.length();
+            int step = overlap == TextSearcher.Overlap.overlapping ? 1 : patternLength;
+            int windowLength = textLength - windowStart;
+            int next = nextStart;
+            for (int position = window.indexOf(compiledPattern, next - windowStart, windowLength); position != -1;
+                 position = window.indexOf(compiledPattern, next - windowStart, windowLength)) {
+                occurrences++;
+                listener.onMatch(this, windowStart + position);
+                next = windowStart + position + step;
+            }
+            // All starts up to the end of the text minus the pattern length are searched
+            nextStart = Math.max(next, textLength - patternLength + 1);
+        }
+    }
+
+    public AppendOnlySearch(BoyerMooreSearch.Alphabet alphabetType) {
+        if (alphabetType == null) {
+            throw new IllegalArgumentException("An alphabet needs to be chosen. Null is not valid.");
+        }
+        this.alphabetType = alphabetType;
+    }
+
+    /**
+     * Counts overlapping occurrences, like BoyerMooreSearch.
+     */
+    public StandingQuery register(String pattern) {
+        return register(pattern, TextSearcher.Overlap.overlapping, (query, position) -> { });
+    }
+
+    /**
+     * Registers the pattern and counts its occurrences in the text appended so far.
+     * @param pattern non-empty pattern
+     * @param overlap whether overlapping occurrences are counted
+     * @param listener called for every occurrence, including those in the current text
+     * @return query holding the count
+     */
+    public synchronized StandingQuery register(String pattern, TextSearcher.Overlap overlap, MatchListener listener) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("An empty pattern can't be searched.");
+        }
+        if (overlap == null || listener == null) {
+            throw new IllegalArgumentException("An overlap and a listener need to be chosen. Null is not valid.");
+        }
+        StandingQuery query = new StandingQuery(BoyerMooreSearch.compile(pattern, alphabetType), overlap, listener);
+        queries.add(query);
+        search(List.of(query));
+        return query;
+    }
+
+    /**
+     * The count of the query isn't updated anymore.
+     */
+    public synchronized void unregister(StandingQuery query) {
+        queries.remove(query);
+    }
+
+    /**
+     * Appends the chunk and updates the counts of all registered patterns.
+     * @param chunk chars of the alphabet
+     */
+    public synchronized void append(CharSequence chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            if (!alphabetType.contains(chunk.charAt(i))) {
+                throw new IllegalArgumentException("The text consists of characters that are not included in the alphabet!");
+            }
+        }
+        text.append(chunk);
+        search(queries);
+    }
+
+    public synchronized String getText() {
+        return text.toString();
+    }
+
+    public synchronized int length() {
+        return text.length();
+    }
+
+    public BoyerMooreSearch.Alphabet getAlphabetType() {
+        return alphabetType;
+    }
+
+    /**
+     * Copies the text from the smallest unsearched start of the queries on and searches it once per query.
+     */
+    private void search(List<StandingQuery> queries) {
+        if (queries.isEmpty()) {
+            return;
+        }
+        int windowStart = Integer.MAX_VALUE;
+        for (StandingQuery query : queries) {
+            windowStart = Math.min(windowStart, query.nextStart);
+        }
+        if (windowStart >= text.length()) {
+            return;
+        }
+        BoyerMooreSearch window = new BoyerMooreSearch(text.substring(windowStart), alphabetType);
+        for (StandingQuery query : queries) {
+            query.search(window, windowStart, text.length());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Approximate pattern searching with up to k errors (Myers' bit-vector algorithm). <br>
+ * An error is a substituted, an inserted or a deleted char, so an occurrence is a part of the text whose edit
+ * distance to the pattern is at most k. The algorithm computes one column of the edit distance matrix per text char,
+ * encoded as the differences between neighbouring cells in two bit vectors, with a handful of bit operations per
+ * 64 pattern chars. Patterns longer than 64 chars are split into blocks of 64, a block passes the difference of its
+ * last row on to the next block.
+ * <p>
+ * An approximate occurrence has no definite start: "ABC" with one error occurs as "AB", "ABC" and "ABCD" in the text
+ * "ABCD". Therefore all positions of this searcher are END positions (index of the last char) of occurrences,
+ * and every end position with an edit distance of at most k is counted once. Non-overlapping searches skip
+ * m positions behind an end position.
+ * </p>
+ * <p>
+ * Chars are compared exactly, the pattern may contain any char.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; word length = w = 64;</li>
+ *  <li>preparation effort = O(∑ * m / w) with ∑ = number of different chars in the pattern</li>
+ *  <li>bc, wc, ac = O(n * ⌈m / w⌉)</li>
+ * </ul>
+ */
+public class ApproximateSearch implements TextSearcher {
+    private final String text;
+    private final int maxErrors;
+
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * @param end index of the last char of the occurrence in the text
+         * @param errors smallest number of errors of an occurrence ending there
+         */
+        void onMatch(int end, int errors);
+    }
+
+    /**
+     * @param text
+     * @param maxErrors maximal edit distance of an occurrence, 0 for exact matching
+     */
+    public ApproximateSearch(String text, int maxErrors) {
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("The number of errors can't be negative.");
+        }
+        this.text = text;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Counts in a single pass.
+     * @param pattern
+     * @return number of end positions of occurrences with at most k errors
+     */
+    @Override
+    public int occurences(String pattern) {
+        int[] occurrences = new int[1];
+        forEachMatch(pattern, (end, errors) -> occurrences[0]++);
+        return occurrences[0];
+    }
+
+    /**
+     * @param pattern
+     * @param fromIndex first possible end position
+     * @return end position of the first occurrence ending at or after fromIndex, -1 if there is none
+     */
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return matcher(pattern).applyAsInt(fromIndex);
+    }
+
+    /**
+     * Builds the bit vectors of the pattern once for all calls.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        Bitmasks bitmasks = new Bitmasks(pattern);
+        return fromIndex -> {
+            int[] first = {-1};
+            // An occurrence with at most k errors is at most m + k chars long, so earlier chars can't be part of it
+            int start = (int) Math.max(0, (long) fromIndex - pattern.length() - maxErrors);
+            search(bitmasks, start, (end, errors) -> {
+                if (end >= fromIndex) {
+                    first[0] = end;
+                    return false;
+                }
+                return true;
+            });
+            return first[0];
+        };
+    }
+
+    /**
+     * Reports all end positions of occurrences with at most k errors in a single pass over the text.
+     * @param pattern
+     * @param listener called for every end position in ascending order
+     */
+    public void forEachMatch(String pattern, MatchListener listener) {
+        search(new Bitmasks(pattern), 0, (end, errors) -> {
+            listener.onMatch(end, errors);
+            return true;
+        });
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    /**
+     * Called for an end position, returns false to stop the search.
+     */
+    @FunctionalInterface
+    private interface Continuation {
+        boolean onMatch(int end, int errors);
+    }
+
+    /**
+     * Bit j of the mask of a char is 1 if the char is at position j of the pattern, one row of blocks per char.
+     */
+    private static final class Bitmasks {
+        private final int patternLength;
+        private final int blocks;
+        // Row of every char below the length of the array, 0 for chars not in the pattern
+        private final int[] rows;
+        private final long[] masks;
+
+        private Bitmasks(String pattern) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("An empty pattern can't be searched.");
+            }
+            this.patternLength = pattern.length();
+            this.blocks = (patternLength + Long.SIZE - 1) / Long.SIZE;
+
+            int maxChar = 0;
+            for (int i = 0; i < patternLength; i++) {
+                maxChar = Math.max(maxChar, pattern.charAt(i));
+            }
+            this.rows = new int[maxChar + 1];
+            int numberOfRows = 1;
+            for (int i = 0; i < patternLength; i++) {
+                if (rows[pattern.charAt(i)] == 0) {
+                    rows[pattern.charAt(i)] = numberOfRows++;
+                }
+            }
+            this.masks = new long[numberOfRows * blocks];
+            for (int i = 0; i < patternLength; i++) {
+                masks[rows[pattern.charAt(i)] * blocks + i / Long.SIZE] |= 1L << i;
+            }
+        }
+
+        private int row(char c) {
+            return c < rows.length ? rows[c] * blocks : 0;
+        }
+    }
+
+    /**
+     * Column by column over the text, starting with an empty column at fromIndex. The first row is 0 in every
+     * column, so an occurrence can start anywhere.
+     */
+    private void search(Bitmasks bitmasks, int fromIndex, Continuation continuation) {
+        int blocks = bitmasks.blocks;
+        long[] masks = bitmasks.masks;
+        // Positive and negative vertical differences per block
+        long[] positive = new long[blocks];
+        long[] negative = new long[blocks];
+        Arrays.fill(positive, ~0L);
+        long lastRowBit = 1L << (bitmasks.patternLength - 1);
+        // Value of the last row, i.e. edit distance of the pattern to the best part of the text ending here
+        int score = bitmasks.patternLength;
+
+        for (int counterInText = fromIndex; counterInText < text.length(); counterInText++) {
+            int row = bitmasks.row(text.charAt(counterInText));
+            int horizontal = 0;
+            for (int block = 0; block < blocks; block++) {
+                long equal = masks[row + block];
+                long positiveVertical = positive[block];
+                long negativeVertical = negative[block];
+
+                long xVertical = equal | negativeVertical;
+                if (horizontal < 0) {
+                    equal |= 1L;
+                }
+                long xHorizontal = (((equal & positiveVertical) + positiveVertical) ^ positiveVertical) | equal;
+                long positiveHorizontal = negativeVertical | ~(xHorizontal | positiveVertical);
+                long negativeHorizontal = positiveVertical & xHorizontal;
+
+                // Difference of the last row of the block, passed on to the next block
+                long highBit = block == blocks - 1 ? lastRowBit : 1L << 63;
+                int horizontalOut = (positiveHorizontal & highBit) != 0 ? 1 : (negativeHorizontal & highBit) != 0 ? -1 : 0;
+
+                positiveHorizontal <<= 1;
+                negativeHorizontal <<= 1;
+                if (horizontal < 0) {
+                    negativeHorizontal |= 1L;
+                }
+                else if (horizontal > 0) {
+                    positiveHorizontal |= 1L;
+                }
+                positive[block] = negativeHorizontal | ~(xVertical | positiveHorizontal);
+                negative[block] = positiveHorizontal & xVertical;
+                horizontal = horizontalOut;
+            }
+            score += horizontal;
+            if (score <= maxErrors && !continuation.onMatch(counterInText, score)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Thread-safe cache bounded by the number of entries and optionally by their total weight.
+ * If the cache is full, entries are evicted by the eviction policy, by default the least recently used one.
+ * Hits, misses and evictions are counted, see {@link #statistics()}.
+ *
+ * @param <K> key type, needs a proper equals and hashCode
+ * @param <V> value type, should be immutable since the values are shared between threads
+ */
+public class BoundedCache<K, V> {
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    private final EvictionPolicy evictionPolicy;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // Keys per number of accesses, only used by leastFrequentlyUsed. A set keeps the order of the accesses
+    private final Map<Long, LinkedHashSet<K>> keysByFrequency = new HashMap<>();
+    private long minFrequency;
+
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public enum EvictionPolicy {
+        /**
+         * Evicts the entry that wasn't accessed for the longest time.
+         */
+        leastRecentlyUsed,
+        /**
+         * Evicts the entry with the fewest accesses, the least recently used one of them on a tie.
+         */
+        leastFrequentlyUsed
+    }
+
+    /**
+     * Snapshot of the counters of a cache.
+     * @param weight total weight of the cached entries
+     */
+    public record Statistics(long hits, long misses, long evictions, int size, long weight) {
+        /**
+         * @return share of the lookups that were hits, 0 if there was no lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+        private long frequency = 1;
+
+        private Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Least recently used cache, every entry weighs 1.
+     * @param maxEntries
+     */
+    public BoundedCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE, (key, value) -> 1, EvictionPolicy.leastRecentlyUsed);
+    }
+
+    /**
+     * @param maxEntries maximal number of entries
+     * @param maxWeight maximal total weight of the entries
+     * @param weigher weight of an entry, e.g. its size in bytes. Must not be negative
+     * @param evictionPolicy
+     */
+    public BoundedCache(int maxEntries, long maxWeight, ToLongBiFunction<? super K, ? super V> weigher, EvictionPolicy evictionPolicy) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The cache needs to hold at least one entry.");
+        }
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("The maximal weight can't be negative.");
+        }
+        if (weigher == null || evictionPolicy == null) {
+            throw new IllegalArgumentException("A weigher and an eviction policy need to be chosen. Null is not valid.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionPolicy = evictionPolicy;
+        // Access order -> the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        if (evictionPolicy == EvictionPolicy.leastFrequentlyUsed) {
+            increaseFrequency(key, entry);
+        }
+        return entry.value;
+    }
+
+    /**
+     * Caches the value and evicts other entries until the cache fits into its bounds again.
+     * A value heavier than the maximal weight isn't cached at all.
+     */
+    public synchronized void put(K key, V value) {
+        long entryWeight = weigher.applyAsLong(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("The weight of an entry can't be negative.");
+        }
+        remove(key);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        while (entries.size() >= maxEntries || weight + entryWeight > maxWeight) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, entryWeight));
+        weight += entryWeight;
+        if (evictionPolicy == EvictionPolicy.leastFrequentlyUsed) {
+            keysByFrequency.computeIfAbsent(1L, frequency -> new LinkedHashSet<>()).add(key);
+            minFrequency = 1;
+        }
+    }
+
+    /**
+     * Returns the cached value or computes and caches it.
+     * The value is computed outside the lock, so two threads missing the same key at once may both compute it.
+     * Only the first result is cached and returned to both.
+     * @param key
+     * @param mappingFunction computes the value on a miss
+     * @return cached value
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            V computed = mappingFunction.apply(key);
+            synchronized (this) {
+                Entry<V> existing = entries.get(key);
+                if (existing != null) {
+                    value = existing.value;
+                }
+                else {
+                    put(key, computed);
+                    value = computed;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return removed value, null if the key wasn't cached
+     */
+    public synchronized V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        weight -= entry.weight;
+        if (evictionPolicy == EvictionPolicy.leastFrequentlyUsed
+                && removeFromFrequency(key, entry.frequency) && entry.frequency == minFrequency && !keysByFrequency.isEmpty()) {
+            // The last key of the lowest frequency is gone -> Search the next one. Accesses never get here
+            minFrequency = keysByFrequency.keySet().stream().mapToLong(Long::longValue).min().getAsLong();
+        }
+        return entry.value;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public synchronized Statistics statistics() {
+        return new Statistics(hits, misses, evictions, entries.size(), weight);
+    }
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        keysByFrequency.clear();
+        weight = 0;
+    }
+
+    private void evict() {
+        K victim;
+        if (evictionPolicy == EvictionPolicy.leastFrequentlyUsed) {
+            victim = keysByFrequency.get(minFrequency).iterator().next();
+        }
+        else {
+            Iterator<K> eldest = entries.keySet().iterator();
+            victim = eldest.next();
+        }
+        remove(victim);
+        evictions++;
+    }
+
+    /**
+     * Moves the key to the next frequency in O(1).
+     */
+    private void increaseFrequency(K key, Entry<V> entry) {
+        boolean emptied = removeFromFrequency(key, entry.frequency);
+        if (emptied && entry.frequency == minFrequency) {
+            // The key was the last one of the lowest frequency and is now the only one of the next
+            minFrequency = entry.frequency + 1;
+        }
+        entry.frequency++;
+        keysByFrequency.computeIfAbsent(entry.frequency, frequency -> new LinkedHashSet<>()).add(key);
+    }
+
+    /**
+     * @return true if no key is left with the frequency
+     */
+    private boolean removeFromFrequency(K key, long frequency) {
+        LinkedHashSet<K> keys = keysByFrequency.get(frequency);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            keysByFrequency.remove(frequency);
+            return true;
+        }
+        return false;
+    }
+}
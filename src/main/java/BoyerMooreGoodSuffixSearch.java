@@ -0,0 +1,71 @@
+/**
+ * Boyer-Moore algorithm implementing the bad character heuristic and the good suffix rule. <br>
+ * After a mismatch both rules are evaluated and the larger shift is taken. The good suffix rule keeps the shifts
+ * large on repetitive texts, where the bad character of the mismatch often occurs close to the end of the pattern.
+ * Like BoyerMooreSearch it counts overlapping occurrences.
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; alphabet length = ∑;</li>
+ *  Method occurrences:
+ *  <li>preparation effort = O(∑ + m)</li>
+ *  <li>bc = O(n / m) ; wc = O(n * m) ; ac = O(n / m) </li>
+ * </ul>
+ */
+public class BoyerMooreGoodSuffixSearch extends BoyerMooreSearch {
+
+    public BoyerMooreGoodSuffixSearch(String text, Alphabet alphabetType) {
+        super(text, alphabetType);
+    }
+
+    /**
+     * @param text
+     * @param alphabetType
+     * @param ignoreCase true to find the patterns in any case of their letters
+     */
+    public BoyerMooreGoodSuffixSearch(String text, Alphabet alphabetType, boolean ignoreCase) {
+        super(text, alphabetType, ignoreCase);
+    }
+
+    @Override
+    protected int indexOf(CompiledPattern compiledPattern, int fromIndex, int toIndex, SearchProbe probe) {
+        checkAlphabet(compiledPattern);
+        String text = getText();
+        String pattern = compiledPattern.getSearchedPattern();
+        int patternLength = pattern.length();
+
+        int lastWindowStart = Math.min(text.length() - patternLength, toIndex - 1);
+
+        int windowStart = Math.max(0, fromIndex);
+        while (windowStart <= lastWindowStart) {
+            int counterInPattern = patternLength - 1;
+            while (counterInPattern >= 0 && matches(text, compiledPattern, windowStart, counterInPattern, probe)) {
+                counterInPattern--;
+            }
+            if (counterInPattern < 0) {
+                // Whole pattern matched
+                if (probe != null) {
+                    probe.onMatch(windowStart);
+                }
+                return windowStart;
+            }
+            // The bad character shift is measured from the end of the pattern -> Subtract the matched chars
+            int badCharacterShift = compiledPattern.shift(text.charAt(windowStart + counterInPattern))
+                    - (patternLength - 1 - counterInPattern);
+            int shift = Math.max(compiledPattern.goodSuffixShift(counterInPattern), badCharacterShift);
+            if (probe != null && windowStart + shift <= lastWindowStart) {
+                probe.onShift(windowStart, shift);
+            }
+            windowStart += shift;
+        }
+        return -1;
+    }
+
+    private static boolean matches(String text, CompiledPattern compiledPattern, int windowStart, int counterInPattern, SearchProbe probe) {
+        boolean match = compiledPattern.getSearchedPattern().charAt(counterInPattern) == compiledPattern.fold(text.charAt(windowStart + counterInPattern));
+        if (probe != null) {
+            probe.onComparison(windowStart + counterInPattern, counterInPattern, match);
+        }
+        return match;
+    }
+}
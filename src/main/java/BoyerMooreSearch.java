@@ -1,5 +1,7 @@
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.IntUnaryOperator;
+
 /**
  * Pattern searching algorithm implementing the bad character heuristic. <br>
  * Preprocesses the pattern to determine shifts, allowing it to skip sections of the text,
@@ -12,7 +14,9 @@ import org.jetbrains.annotations.NotNull;
  *  <li>All letters</li>
  *  <li>Numbers and all letters</li>
  *  <li>Ascii</li>
- *  The special characters ' ' and ',' are always at the second to last and last position except in the ascii alphabet.
+ *  <li>Unicode - Latin-1 chars have their own index, all other chars share 256 buckets</li>
+ *  The special characters ' ' and ',' are always at the second to last and last position except in the ascii
+ *  and unicode alphabet.
  * </ul>
  *
  * <ul>
@@ -23,15 +27,306 @@ import org.jetbrains.annotations.NotNull;
  *  <li>preparation effort = O(∑ + m)</li>
  *  <li>bc = O(n / m) ; wc = O(n * m) ; ac = O(n / m) </li>
  * </ul>
+ * The preparation is done once per pattern by {@link #compile(String)}. Compiled patterns are immutable and cached,
+ * so repeated patterns skip it and a searcher can be shared by several threads as long as the text isn't replaced.
+ * <p>
+ * A searcher created with ignoreCase searches case-insensitively without copying the text: The pattern is folded
+ * once when it is compiled, every text char while it is compared, see {@link #foldCase(char)}. The shift tables give
+ * both cases of a letter the same shift, so the search still skips like the case-sensitive one.
+ * </p>
  */
 public class BoyerMooreSearch implements TextSearcher {
+    /**
+     * Compiled patterns shared by all instances. Key is the alphabet and the pattern.
+     */
+    private static final BoundedCache<PatternKey, CompiledPattern> PATTERN_CACHE = new BoundedCache<>(256);
+    private static final int CASE_DIFFERENCE = 'a' - 'A';
+
     @NotNull
     private String text;
     private Alphabet alphabetType;
     private int sizeOfAlphabet;
-    private int[] shiftTable;
+    private SearchProbe probe;
+    private final boolean ignoreCase;
+
+    public enum Alphabet {
+        onlyNumbers(10 + 2),
+        upperCaseLetters(26 + 2),
+        lowerCaseLetters(26 + 2),
+        allLetters(2 * 26 + 2),
+        numbersAndAllLetters(10 + 2 * 26 + 2),
+        ascii(128),
+        unicode(256 + 256);
+
+        private static final int LATIN_1 = 256;
+
+        private final int size;
+        // Index of every char below the length of the table, -1 if the char isn't part of the alphabet
+        private short[] indexTable;
+
+        static {
+            for (Alphabet alphabet : values()) {
+                alphabet.indexTable = alphabet.buildIndexTable();
+            }
+        }
+
+        Alphabet(int size) {
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean contains(char c) {
+            return index(c) >= 0;
+        }
+
+        /**
+         * Looks up the position of a char in the alphabet. For chars outside the table only the unicode alphabet
+         * has an index: They are hashed into the buckets behind the Latin-1 chars, so several chars share one index.
+         * Shift tables stay correct with shared indices as long as they keep the smallest shift of the chars.
+         * @param c character from the text
+         * @return index in the alphabet, -1 if the char isn't part of it
+         */
+        public int index(char c) {
+            if (c < indexTable.length) {
+                return indexTable[c];
+            }
+            return this == unicode ? LATIN_1 + ((c ^ (c >>> 8)) & 0xFF) : -1;
+        }
+
+        /**
+         * @return true if several chars can share one index, i.e. an index doesn't identify a char
+         */
+        public boolean hasSharedIndices() {
+            return this == unicode;
+        }
+
+        private short[] buildIndexTable() {
+            if (this == unicode) {
+                short[] table = new short[LATIN_1];
+                for (int c = 0; c < LATIN_1; c++) {
+                    table[c] = (short) c;
+                }
+                return table;
+            }
+            short[] table = new short[128];
+            for (char c = 0; c < table.length; c++) {
+                table[c] = (short) (isCharValid(c) ? calcIndex(c) : -1);
+            }
+            return table;
+        }
+
+        private boolean isCharValid(char c) {
+            if (c == ' ' || c == ',') {
+                return true;
+            }
+            else {
+                switch (this) {
+                    case onlyNumbers -> {
+                        return checkForOnlyNumbers(c);
+                    }
+                    case upperCaseLetters -> {
+                        return checkForUpperCaseLetters(c);
+                    }
+                    case lowerCaseLetters -> {
+                        return checkForLowerCaseLetters(c);
+                    }
+                    case allLetters -> {
+                        return checkForAllLetters(c);
+                    }
+                    case numbersAndAllLetters -> {
+                        return checkForNumbersAndAllLetters(c);
+                    }
+                    case ascii -> {
+                        return checkForAscii(c);
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Maps the ASCII value of a char to the position in the alphabet. Used once to fill the index table.
+         * Special cases ' ' and ',' are always on the second to last and last position in alphabet.
+         * General order is: numbers ; upperCase ; lowerCase ; specialChars
+         * (Of course only one alphabet would be the most effective solution)
+         * @param c valid character of the alphabet
+         * @return index in the alphabet
+         */
+        private int calcIndex(char c) {
+            if (this == ascii) {
+                return c;
+            }
+            else if (c == ' ') {
+                return size - 2;
+            }
+            else if (c == ',') {
+                return size - 1;
+            }
+            else {
+                if (c >= '0' && c <= '9') {
+                    // Number
+                    return c - '0';
+                } else if (c >= 'A' && c <= 'Z') {
+                    // Upper case
+                    if (this == numbersAndAllLetters) {
+                        return c - 'A' + 10;
+                    }
+                    else {
+                        return c - 'A';
+                    }
+                } else {
+                    // Lower case
+                    if (this == allLetters) {
+                        return c - 'a' + 26;
+                    }
+                    else if (this == numbersAndAllLetters) {
+                        return c - 'a' + 10 + 26;
+                    }
+                    else {
+                        return c - 'a';
+                    }
+                }
+            }
+        }
+
+        private static boolean checkForOnlyNumbers(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean checkForUpperCaseLetters(char c) {
+            return c >= 'A' && c <= 'Z';
+        }
+
+        private static boolean checkForLowerCaseLetters(char c) {
+            return c >= 'a' && c <= 'z';
+        }
+
+        private static boolean checkForAllLetters(char c) {
+            return checkForUpperCaseLetters(c) || checkForLowerCaseLetters(c);
+        }
+
+        private static boolean checkForNumbersAndAllLetters(char c) {
+            return checkForOnlyNumbers(c) || checkForUpperCaseLetters(c) || checkForLowerCaseLetters(c);
+        }
+
+        private static boolean checkForAscii(char c) {
+            return c >= 0 && c <= 127;
+        }
+    }
+
+    /**
+     * Immutable result of the preprocessing of a pattern for one alphabet.
+     * Holds the shift tables, so a compiled pattern can be searched in any text of the same alphabet,
+     * by any number of threads at once.
+     * <ul>
+     *  Precomputed data:
+     *  <li>shift table of the bad character heuristic, used by all variants</li>
+     *  <li>good suffix table, used by BoyerMooreGoodSuffixSearch</li>
+     *  <li>shift of the last pattern char, used by HorspoolSearch</li>
+     * </ul>
+     * A pattern compiled with ignoreCase is compared in folded case, see {@link #fold(char)}.
+     */
+    public static final class CompiledPattern {
+        private final String pattern;
+        // Folded pattern if the case is ignored, compared with the folded text chars
+        private final String searchedPattern;
+        private final Alphabet alphabetType;
+        private final boolean ignoreCase;
+        private final int[] shiftTable;
+        private final int[] goodSuffixTable;
+        private final int lastCharShift;
+
+        private CompiledPattern(String pattern, Alphabet alphabetType, boolean ignoreCase) {
+            this.pattern = pattern;
+            this.searchedPattern = ignoreCase ? foldCase(pattern) : pattern;
+            this.alphabetType = alphabetType;
+            this.ignoreCase = ignoreCase;
+            this.shiftTable = initShiftAlphabet(pattern, alphabetType, ignoreCase);
+            this.goodSuffixTable = initGoodSuffixTable(searchedPattern);
+            this.lastCharShift = calcLastCharShift(pattern, alphabetType, ignoreCase);
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        /**
+         * @return pattern the folded text chars are compared with; the pattern itself if the case matters
+         */
+        public String getSearchedPattern() {
+            return searchedPattern;
+        }
+
+        public boolean isIgnoreCase() {
+            return ignoreCase;
+        }
+
+        /**
+         * @param c character from the text
+         * @return char to compare with the searched pattern
+         */
+        public char fold(char c) {
+            return ignoreCase ? foldCase(c) : c;
+        }
+
+        public Alphabet getAlphabetType() {
+            return alphabetType;
+        }
+
+        public int length() {
+            return pattern.length();
+        }
+
+        /**
+         * @return copy of the shift table, indexed by the position of a char in the alphabet
+         */
+        public int[] getShiftTable() {
+            return shiftTable.clone();
+        }
+
+        /**
+         * @param c character from the text
+         * @return shift width of the character
+         */
+        public int shift(char c) {
+            return shiftTable[alphabetType.index(c)];
+        }
+
+        /**
+         * @param index position of a char in the alphabet
+         * @return shift width of the char, for texts already encoded as alphabet indices
+         */
+        int shiftOfIndex(int index) {
+            return shiftTable[index];
+        }
 
-    public enum Alphabet {onlyNumbers, upperCaseLetters, lowerCaseLetters, allLetters, numbersAndAllLetters, ascii}
+        /**
+         * @param positionInPattern position of the mismatch, all chars right of it matched
+         * @return shift width of the good suffix rule
+         */
+        public int goodSuffixShift(int positionInPattern) {
+            return goodSuffixTable[positionInPattern];
+        }
+
+        /**
+         * Shift of the Horspool variant. Equals the bad character shift, except for the last char of the pattern:
+         * It is aligned with its previous occurrence instead of staying in place.
+         * @param c character from the text below the last char of the pattern
+         * @return shift width
+         */
+        public int horspoolShift(char c) {
+            int shift = shiftTable[alphabetType.index(c)];
+            return shift == 0 ? lastCharShift : shift;
+        }
+    }
+
+    private record PatternKey(Alphabet alphabetType, String pattern, boolean ignoreCase) {
+    }
 
     /**
      * The alphabets containing the letters also include the space at position 26 and comma at position 27.
@@ -39,82 +334,184 @@ public class BoyerMooreSearch implements TextSearcher {
      * @param alphabetType
      */
     public BoyerMooreSearch(String text, Alphabet alphabetType) {
+        this(text, alphabetType, false);
+    }
+
+    /**
+     * @param text
+     * @param alphabetType
+     * @param ignoreCase true to find the patterns in any case of their letters
+     */
+    public BoyerMooreSearch(String text, Alphabet alphabetType, boolean ignoreCase) {
         setText(text, alphabetType);
         calcSizeOfAlphabet();
-        initShiftTable();
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Preprocesses the pattern for the alphabet and the case mode of this searcher. Repeated patterns are taken
+     * from a cache.
+     * @param pattern
+     * @return compiled pattern, reusable for other texts and threads
+     */
+    public CompiledPattern compile(String pattern) {
+        return compile(pattern, alphabetType, ignoreCase);
+    }
+
+    /**
+     * Preprocesses the pattern for the alphabet. Repeated patterns are taken from a bounded LRU cache
+     * shared by all searchers.
+     * @param pattern
+     * @param alphabetType
+     * @return compiled pattern, reusable for other texts and threads
+     */
+    public static CompiledPattern compile(String pattern, Alphabet alphabetType) {
+        return compile(pattern, alphabetType, false);
+    }
+
+    /**
+     * Preprocesses the pattern for the alphabet, see {@link #compile(String, Alphabet)}.
+     * @param pattern
+     * @param alphabetType
+     * @param ignoreCase true to find the pattern in any case of its letters
+     * @return compiled pattern, reusable for other texts and threads
+     */
+    public static CompiledPattern compile(String pattern, Alphabet alphabetType, boolean ignoreCase) {
+        return PATTERN_CACHE.computeIfAbsent(new PatternKey(alphabetType, pattern, ignoreCase),
+                key -> new CompiledPattern(pattern, alphabetType, ignoreCase));
+    }
+
+    /**
+     * Case folding of the searches ignoring the case: ASCII upper case letters are mapped to lower case,
+     * all other chars stay the same. This covers the letters of all alphabets except unicode, where the other
+     * letters keep their case.
+     * @param c
+     * @return folded char
+     */
+    public static char foldCase(char c) {
+        // Without a branch, mixed case texts would mispredict it for every other char:
+        // The sign bit of (d - 26) & ~d is set exactly for 0 <= d < 26
+        int d = c - 'A';
+        return (char) (c + (((d - 26) & ~d) >>> 31) * CASE_DIFFERENCE);
     }
 
     @Override
     public int occurences(String pattern) {
-        initShiftAlphabet(pattern);
+        return occurences(compile(pattern));
+    }
 
-        int occurrences = 0;
-        int counterInText = pattern.length() - 1;
-        int counterInPattern = pattern.length() - 1;
+    /**
+     * Searches a precompiled pattern. Doesn't modify the searcher, so it can be called by several threads at once.
+     * @param compiledPattern pattern compiled for the alphabet of this searcher
+     * @return number of occurrences
+     */
+    public int occurences(CompiledPattern compiledPattern) {
+        // The empty pattern also starts behind the last char
+        return occurences(compiledPattern, 0, text.length() + 1);
+    }
 
-        while (counterInText < text.length()) {
-            if (text.charAt(counterInText) == pattern.charAt(counterInPattern)) {
-                // Match
-                if (counterInPattern == 0) {
-                    occurrences++;
-                    counterInText += pattern.length();
-                    counterInPattern = pattern.length() - 1;
-                }
-                else {
-                    counterInText--;
-                    counterInPattern--;
-                }
-            }
-            else {
-                // Jump to next position
-                if (pattern.length() - counterInPattern > shiftTable[getIndex(text.charAt(counterInText))]) {
-                    /* Went more steps left (down the text) then the jump distance from shiftAlphabet would be.
-                       -> Jump all steps back and one step further */
-                    counterInText += pattern.length() - counterInPattern;
-                }
-                else {
-                    counterInText += shiftTable[getIndex(text.charAt(counterInText))];
+    /**
+     * Counts the occurrences starting in [fromIndex, toIndex). The text up to toIndex + m - 1 is read,
+     * so occurrences crossing toIndex are found too. Used to search chunks of the text in parallel.
+     * @param compiledPattern pattern compiled for the alphabet of this searcher
+     * @param fromIndex first possible start of an occurrence
+     * @param toIndex end (exclusive) of the possible starts
+     * @return number of occurrences starting in the range
+     */
+    public int occurences(CompiledPattern compiledPattern, int fromIndex, int toIndex) {
+        return occurences(compiledPattern, fromIndex, toIndex, SearchMetrics.probe(this.probe));
+    }
+
+    /**
+     * Counts the occurrences starting in [fromIndex, toIndex) and reports the steps to the probe.
+     * @param probe probe of the call, null to search unobserved
+     */
+    protected int occurences(CompiledPattern compiledPattern, int fromIndex, int toIndex, SearchProbe probe) {
+        int lastStart = (int) Math.min((long) text.length() - compiledPattern.length(), toIndex - 1L);
+        if (probe != null) {
+            probe.onStart(getClass().getSimpleName(), Math.max(0, Math.min(text.length(), lastStart + compiledPattern.length()) - fromIndex),
+                    compiledPattern.getPattern());
+        }
+        int occurrences = 0;
+        if (compiledPattern.length() == 0) {
+            // Like NaiveSearch: The empty pattern occurs at every start. Handled here once for all variants
+            checkAlphabet(compiledPattern);
+            occurrences = Math.max(0, lastStart - Math.max(0, fromIndex) + 1);
+        }
+        else {
+            // Continuing one char behind an occurrence -> Overlapping occurrences are counted
+            for (int position = indexOf(compiledPattern, fromIndex, toIndex, probe); position != -1;
+                 position = indexOf(compiledPattern, position + 1, toIndex, probe)) {
+                occurrences++;
+                if (probe != null && position < lastStart) {
+                    probe.onShift(position, 1);
                 }
-                // Reset counterInPattern
-                counterInPattern = pattern.length() - 1;
             }
         }
-
+        if (probe != null) {
+            probe.onEnd();
+        }
         return occurrences;
     }
 
-    public void visualiseComparisons(String pattern) throws InterruptedException {
-        initShiftAlphabet(pattern);
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return indexOf(compile(pattern), fromIndex, text.length() + 1);
+    }
 
-        String textInShiftNums = calcTextInShiftNums();
-        System.out.println(textInShiftNums);
-        System.out.println(text);
-        String cursor = "^";
-        String output;
-        boolean first = true;
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        CompiledPattern compiledPattern = compile(pattern);
+        return fromIndex -> indexOf(compiledPattern, fromIndex, text.length() + 1);
+    }
 
-        int occurrences = 0;
-        int counterInText = pattern.length() - 1;
-        int counterInPattern = pattern.length() - 1;
+    /**
+     * Searches the first occurrence starting in [fromIndex, toIndex). The text up to toIndex + m - 1 is read.
+     * @param compiledPattern pattern compiled for the alphabet of this searcher
+     * @param fromIndex first possible start of an occurrence
+     * @param toIndex end (exclusive) of the possible starts
+     * @return start of the first occurrence in the range, -1 if there is none
+     */
+    public int indexOf(CompiledPattern compiledPattern, int fromIndex, int toIndex) {
+        if (compiledPattern.length() == 0) {
+            // The variants only search non-empty patterns
+            checkAlphabet(compiledPattern);
+            int start = Math.max(0, fromIndex);
+            return start <= Math.min(text.length(), toIndex - 1L) ? start : -1;
+        }
+        return indexOf(compiledPattern, fromIndex, toIndex, probe);
+    }
 
-        int prevTextPos = counterInText;
-        int lastJumpLength;
+    /**
+     * Searches the first occurrence starting in [fromIndex, toIndex) and reports the steps to the probe.
+     * Overridden by the variants of the algorithm. Never called with the empty pattern.
+     * @param compiledPattern pattern compiled for the alphabet of this searcher
+     * @param fromIndex first possible start of an occurrence
+     * @param toIndex end (exclusive) of the possible starts
+     * @param probe null to search unobserved
+     * @return start of the first occurrence in the range, -1 if there is none
+     */
+    protected int indexOf(CompiledPattern compiledPattern, int fromIndex, int toIndex, SearchProbe probe) {
+        checkAlphabet(compiledPattern);
+        String pattern = compiledPattern.getSearchedPattern();
+        // counterInText is at the end of the window whenever the loop condition is checked
+        int endOfRange = (int) Math.min(text.length(), (long) toIndex + pattern.length() - 1);
 
-        while (counterInText < text.length()) {
-            char currentCharInPattern = pattern.charAt(counterInPattern);
-            output = calcNumSpaces(String.valueOf(currentCharInPattern),counterInText);
-            lastJumpLength = counterInText - prevTextPos;
-            prevTextPos = counterInText;
-            System.out.print("\r" + output + " jumpsize: " + lastJumpLength + " occurrences: " + occurrences);
-            Thread.sleep(10000);
+        int counterInText = Math.max(0, fromIndex) + pattern.length() - 1;
+        int counterInPattern = pattern.length() - 1;
 
-            char c = text.charAt(counterInText);
-            if (text.charAt(counterInText) == pattern.charAt(counterInPattern)) {
+        while (counterInText < endOfRange) {
+            boolean match = compiledPattern.fold(text.charAt(counterInText)) == pattern.charAt(counterInPattern);
+            if (probe != null) {
+                probe.onComparison(counterInText, counterInPattern, match);
+            }
+            if (match) {
                 // Match
                 if (counterInPattern == 0) {
-                    occurrences++;
-                    counterInText += pattern.length();
-                    counterInPattern = pattern.length() - 1;
+                    if (probe != null) {
+                        probe.onMatch(counterInText);
+                    }
+                    return counterInText;
                 }
                 else {
                     counterInText--;
@@ -122,20 +519,65 @@ public class BoyerMooreSearch implements TextSearcher {
                 }
             }
             else {
+                int windowStart = counterInText - counterInPattern;
                 // Jump to next position
-                if (pattern.length() - counterInPattern > shiftTable[getIndex(text.charAt(counterInText))]) {
+                if (pattern.length() - counterInPattern > compiledPattern.shift(text.charAt(counterInText))) {
                     /* Went more steps left (down the text) then the jump distance from shiftAlphabet would be.
                        -> Jump all steps back and one step further */
                     counterInText += pattern.length() - counterInPattern;
                 }
                 else {
-                    counterInText += shiftTable[getIndex(text.charAt(counterInText))];
+                    counterInText += compiledPattern.shift(text.charAt(counterInText));
+                }
+                if (probe != null && counterInText < endOfRange) {
+                    probe.onShift(windowStart, counterInText - pattern.length() + 1 - windowStart);
                 }
                 // Reset counterInPattern
                 counterInPattern = pattern.length() - 1;
             }
         }
 
+        return -1;
+    }
+
+    public void visualiseComparisons(String pattern) throws InterruptedException {
+        visualiseComparisons(pattern, 10000);
+    }
+
+    /**
+     * Searches the pattern at full speed while recording a {@link SearchTrace}, afterwards the steps are printed
+     * one by one.
+     * @param pattern
+     * @param delayMillis pause after every printed step
+     * @throws InterruptedException
+     */
+    public void visualiseComparisons(String pattern, long delayMillis) throws InterruptedException {
+        CompiledPattern compiledPattern = compile(pattern);
+        // Shift of every text char above the text
+        System.out.println(calcTextInShiftNums(compiledPattern));
+        SearchTrace trace = new SearchTrace(SearchTrace.capacityFor(text.length(), pattern.length()));
+        // The probe of the searcher stays untouched, other threads may search at the same time
+        occurences(compiledPattern, 0, text.length(), SearchMetrics.probe(SearchProbe.both(probe, trace)));
+        trace.visualise(text, pattern, System.out, delayMillis);
+    }
+
+    /**
+     * Observes steps of the searches, see {@link SearchProbe}.
+     * @param probe null to search unobserved
+     */
+    public void setProbe(SearchProbe probe) {
+        this.probe = probe;
+    }
+
+    public SearchProbe getProbe() {
+        return probe;
+    }
+
+    /**
+     * @return true if the patterns are found in any case of their letters
+     */
+    public boolean isIgnoreCase() {
+        return ignoreCase;
     }
 
     public @NotNull String getText() {
@@ -166,23 +608,7 @@ public class BoyerMooreSearch implements TextSearcher {
     }
 
     public void calcSizeOfAlphabet() {
-        switch (alphabetType) {
-            case onlyNumbers -> sizeOfAlphabet = 10 + 2;
-            case lowerCaseLetters -> sizeOfAlphabet = 26 + 2;
-            case upperCaseLetters -> sizeOfAlphabet = 26 + 2;
-            case allLetters -> sizeOfAlphabet = 2 * 26 + 2;
-            case numbersAndAllLetters -> sizeOfAlphabet = 10 + 2 * 26 + 2;
-            case ascii -> sizeOfAlphabet = 128;
-            default -> throw new IllegalArgumentException("Alphabet type is missing.");
-        }
-    }
-
-    public int[] getShiftTable() {
-        return shiftTable;
-    }
-
-    public void initShiftTable() {
-        shiftTable = new int[sizeOfAlphabet];
+        sizeOfAlphabet = alphabetType.size();
     }
 
     public boolean isTextValid(String text) {
@@ -195,102 +621,22 @@ public class BoyerMooreSearch implements TextSearcher {
     }
 
     private boolean isCharValid(char c) {
-        if (c == ' ' || c == ',') {
-            return true;
-        }
-        else {
-            switch (alphabetType) {
-                case onlyNumbers -> {
-                    return checkForOnlyNumbers(c);
-                }
-                case upperCaseLetters -> {
-                    return checkForUpperCaseLetters(c);
-                }
-                case lowerCaseLetters -> {
-                    return checkForLowerCaseLetters(c);
-                }
-                case allLetters -> {
-                    return checkForAllLetters(c);
-                }
-                case numbersAndAllLetters -> {
-                    return checkForNumbersAndAllLetters(c);
-                }
-                case ascii -> {
-                    return checkForAscii(c);
-                }
-                default -> {
-                    return false;
-                }
-            }
-        }
-    }
-
-    private boolean checkForOnlyNumbers(char c) {
-        return c >= '0' && c <= '9';
-    }
-
-    private boolean checkForUpperCaseLetters(char c) {
-        return c >= 'A' && c <= 'Z';
-    }
-
-    private boolean checkForLowerCaseLetters(char c) {
-        return c >= 'a' && c <= 'z';
-    }
-
-    private boolean checkForAllLetters(char c) {
-        return checkForUpperCaseLetters(c) || checkForLowerCaseLetters(c);
-    }
-
-    private boolean checkForNumbersAndAllLetters(char c) {
-        return checkForOnlyNumbers(c) || checkForUpperCaseLetters(c) || checkForLowerCaseLetters(c);
-    }
-
-    private boolean checkForAscii(char c) {
-        return c >= 0 && c <= 127;
+        return alphabetType.contains(c);
     }
 
     /**
-     * Maps the ASCII value of a char to the position in the alphabet.
-     * Special cases ' ' and ',' are always on the second to last and last position in alphabet.
-     * General order is: numbers ; upperCase ; lowerCase ; specialChars
-     * (Of course only one alphabet would be the most effective solution)
+     * Maps the ASCII value of a char to the position in the alphabet, see {@link Alphabet#index(char)}.
      * @param charInPattern character from the text
      * @return index in the alphabet
      */
     public int getIndex(char charInPattern) {
-        if (alphabetType == Alphabet.ascii) {
-            return charInPattern;
-        }
-        else if (charInPattern == ' ') {
-            return sizeOfAlphabet - 2;
-        }
-        else if (charInPattern == ',') {
-            return sizeOfAlphabet - 1;
-        }
-        else {
-            if (charInPattern >= '0' && charInPattern <= '9') {
-                // Number
-                return charInPattern - '0';
-            } else if (charInPattern >= 'A' && charInPattern <= 'Z') {
-                // Upper case
-                if (alphabetType == Alphabet.numbersAndAllLetters) {
-                    return charInPattern - 'A' + 10;
-                }
-                else {
-                    return charInPattern - 'A';
-                }
-            } else {
-                // Lower case
-                if (alphabetType == Alphabet.allLetters) {
-                    return charInPattern - 'a' + 26;
-                }
-                else if (alphabetType == Alphabet.numbersAndAllLetters) {
-                    return charInPattern - 'a' + 10 + 26;
-                }
-                else {
-                    return charInPattern - 'a';
-                }
-            }
+        return alphabetType.index(charInPattern);
+    }
+
+    protected void checkAlphabet(CompiledPattern compiledPattern) {
+        if (compiledPattern.getAlphabetType() != alphabetType) {
+            throw new IllegalArgumentException("The pattern was compiled for the alphabet " + compiledPattern.getAlphabetType()
+                    + " but the text uses " + alphabetType + ".");
         }
     }
 
@@ -303,47 +649,167 @@ public class BoyerMooreSearch implements TextSearcher {
      * <p>
      * The chars in the pattern get assigned with their position in the pattern in reverse.
      * This aligns the char in the text directly with its correspondent letter in the pattern, the first possible position
-     * where a whole match is possible.
+     * where a whole match is possible. If the case is ignored, both cases of a letter get its shift.
      * </p>
      * @param pattern
+     * @param alphabetType
+     * @param ignoreCase
+     * @return shift table indexed by the position of a char in the alphabet
      */
-    private void initShiftAlphabet(String pattern) {
+    private static int[] initShiftAlphabet(String pattern, Alphabet alphabetType, boolean ignoreCase) {
         int patternLength = pattern.length();
+        int[] shiftTable = new int[alphabetType.size()];
         // Assign all chars of the alphabet the default shift width of the patternLength
-        for (int i = 0; i < sizeOfAlphabet; i++) {
+        for (int i = 0; i < shiftTable.length; i++) {
             shiftTable[i] = patternLength;
         }
         // Edit the shiftAlphabet array for all chars occurring in the pattern
         for (int i = 0; i < patternLength; i++) {
-            shiftTable[getIndex(pattern.charAt(i))] = patternLength - i - 1;
+            int index = alphabetType.index(pattern.charAt(i));
+            // Chars outside the alphabet never occur in the text, their shift is never looked up
+            if (index >= 0) {
+                // Later positions overwrite earlier ones -> Chars sharing an index keep the smallest shift
+                shiftTable[index] = patternLength - i - 1;
+            }
+            if (ignoreCase) {
+                int otherCaseIndex = alphabetType.index(otherCase(pattern.charAt(i)));
+                if (otherCaseIndex >= 0) {
+                    shiftTable[otherCaseIndex] = patternLength - i - 1;
+                }
+            }
         }
+        return shiftTable;
     }
 
     /**
-     * Method used for the visualisation.
-     * Concatenate so many spaces as the counterInText has advanced with the current char in the pattern
-     * @param currentCharInPattern current char in the pattern that is compared with the text
-     * @param positionInText
-     * @return String consisting of positionInText many spaces and the char that is currently compared to the text
+     * <p>
+     * Calculates the shifts of the good suffix rule. If the chars right of position i matched (the good suffix)
+     * and the char at position i didn't, the pattern can be shifted until the good suffix meets another
+     * occurrence of it in the pattern that is preceded by a different char. If there is none, it is aligned with
+     * the longest prefix of the pattern that is also a suffix of the good suffix.
+     * </p>
+     * <p>
+     * suffixLength[i] is the length of the longest substring ending at position i that is also a suffix of the pattern.
+     * </p>
+     * @param pattern
+     * @return good suffix shifts indexed by the position of the mismatch in the pattern
      */
-    private String calcNumSpaces(String currentCharInPattern, int positionInText) {
-        String space = " ";
-        for (int i = 0; i < positionInText; i++) {
-            currentCharInPattern = space + currentCharInPattern;
+    private static int[] initGoodSuffixTable(String pattern) {
+        int patternLength = pattern.length();
+        int[] goodSuffixTable = new int[patternLength];
+        if (patternLength == 0) {
+            return goodSuffixTable;
+        }
+        int[] suffixLength = calcSuffixLengths(pattern);
+
+        for (int i = 0; i < patternLength; i++) {
+            goodSuffixTable[i] = patternLength;
+        }
+        // The good suffix only reoccurs as a prefix of the pattern
+        int j = 0;
+        for (int i = patternLength - 1; i >= 0; i--) {
+            if (suffixLength[i] == i + 1) {
+                for (; j < patternLength - 1 - i; j++) {
+                    if (goodSuffixTable[j] == patternLength) {
+                        goodSuffixTable[j] = patternLength - 1 - i;
+                    }
+                }
+            }
+        }
+        // The good suffix reoccurs inside the pattern
+        for (int i = 0; i < patternLength - 1; i++) {
+            goodSuffixTable[patternLength - 1 - suffixLength[i]] = patternLength - 1 - i;
+        }
+        return goodSuffixTable;
+    }
+
+    private static int[] calcSuffixLengths(String pattern) {
+        int patternLength = pattern.length();
+        int[] suffixLength = new int[patternLength];
+        suffixLength[patternLength - 1] = patternLength;
+        // [g + 1, f] is the rightmost substring found so far that is also a suffix of the pattern
+        int g = patternLength - 1;
+        int f = patternLength - 1;
+        for (int i = patternLength - 2; i >= 0; i--) {
+            if (i > g && suffixLength[i + patternLength - 1 - f] < i - g) {
+                suffixLength[i] = suffixLength[i + patternLength - 1 - f];
+            }
+            else {
+                if (i < g) {
+                    g = i;
+                }
+                f = i;
+                while (g >= 0 && pattern.charAt(g) == pattern.charAt(g + patternLength - 1 - f)) {
+                    g--;
+                }
+                suffixLength[i] = f - g;
+            }
+        }
+        return suffixLength;
+    }
+
+    /**
+     * @param pattern
+     * @param alphabetType
+     * @param ignoreCase
+     * @return distance of the last char of the pattern to the previous char with the same index,
+     * the pattern length if there is none
+     */
+    private static int calcLastCharShift(String pattern, Alphabet alphabetType, boolean ignoreCase) {
+        int patternLength = pattern.length();
+        if (patternLength == 0) {
+            return 0;
+        }
+        char last = pattern.charAt(patternLength - 1);
+        for (int i = patternLength - 2; i >= 0; i--) {
+            if (sharesShift(pattern.charAt(i), last, alphabetType, ignoreCase)) {
+                return patternLength - 1 - i;
+            }
+        }
+        return patternLength;
+    }
+
+    /**
+     * @return true if the chars can't be told apart by the shift table
+     */
+    private static boolean sharesShift(char a, char b, Alphabet alphabetType, boolean ignoreCase) {
+        if (!ignoreCase) {
+            return alphabetType.index(a) == alphabetType.index(b);
+        }
+        // Folded letters only share their index in the unicode alphabet, but never with another letter
+        return foldCase(a) == foldCase(b)
+                || alphabetType.hasSharedIndices() && alphabetType.index(foldCase(a)) == alphabetType.index(foldCase(b));
+    }
+
+    /**
+     * @return the ASCII letter in the other case, any other char unchanged
+     */
+    private static char otherCase(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - CASE_DIFFERENCE);
+        }
+        return foldCase(c);
+    }
+
+    private static String foldCase(String pattern) {
+        char[] folded = new char[pattern.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = foldCase(pattern.charAt(i));
         }
-        return currentCharInPattern;
+        return new String(folded);
     }
 
     /**
      * Method used for the visualisation.
      * Calculate for each char in the text the corresponding shift size from the shift table.
      * Is printed above the text to visualise the shifts.
+     * @param compiledPattern pattern whose shift table is displayed
      * @return the text but instead of the chars with the shift sizes
      */
-    private String calcTextInShiftNums() {
+    private String calcTextInShiftNums(CompiledPattern compiledPattern) {
         int[] shiftNums = new int[text.length()];
         for (int i = 0; i < text.length(); i++) {
-            shiftNums[i] = shiftTable[getIndex(text.charAt(i))];
+            shiftNums[i] = compiledPattern.shift(text.charAt(i));
         }
 
         StringBuilder textInShiftNums = new StringBuilder();
@@ -0,0 +1,158 @@
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Decorator caching the number of occurrences per text, pattern and overlap mode. <br>
+ * Repeated counts of the same pattern in the same text are answered without searching the text again.
+ * The cache is bounded by the number of entries and by their estimated size in bytes, see {@link BoundedCache}.
+ * Positions (indexOf, matcher) aren't cached and are searched by the wrapped searcher.
+ * <p>
+ * The text of NaiveSearch, the advanced naive searches and BoyerMooreSearch can be replaced, e.g. by
+ * {@link BoyerMooreSearch#setText(String, BoyerMooreSearch.Alphabet)}. The current text is part of every key,
+ * so a count of the old text is never returned for the new one. When the text changes, the entries of the old text
+ * are removed. Replacing the text while another thread is searching isn't supported, as with the searchers themselves.
+ * </p>
+ * Thread-safe if the wrapped searcher can be queried by several threads at once.
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m;</li>
+ *  <li>hit = O(m)</li>
+ *  <li>miss = O(m) + time of the wrapped searcher</li>
+ * </ul>
+ */
+public class CachingSearch implements TextSearcher {
+    /**
+     * Estimated bytes of an entry besides the chars of the pattern: key, entry, boxed count and map node.
+     */
+    static final int ENTRY_OVERHEAD = 128;
+    private static final int DEFAULT_MAX_ENTRIES = 1024;
+    private static final long DEFAULT_MAX_WEIGHT = 1 << 20;
+
+    private final TextSearcher searcher;
+    private final Supplier<?> textIdentity;
+    private final BoundedCache<Query, Integer> cache;
+    private Object currentText;
+
+    /**
+     * Key of a cached count. The text is compared with equals, which is a reference comparison for the same text.
+     * @param overlap null for the semantics of the searcher, see {@link TextSearcher#occurences(String)}
+     */
+    private record Query(Object text, String pattern, Overlap overlap) {
+    }
+
+    /**
+     * Least recently used cache of up to 1024 counts and 1 MiB.
+     * @param searcher
+     */
+    public CachingSearch(TextSearcher searcher) {
+        this(searcher, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT, BoundedCache.EvictionPolicy.leastRecentlyUsed);
+    }
+
+    /**
+     * Detects replaced texts of NaiveSearch, the advanced naive searches and BoyerMooreSearch (and its subclasses).
+     * The texts of all other searchers are immutable.
+     * @param searcher
+     * @param maxEntries maximal number of cached counts
+     * @param maxBytes maximal estimated size of the cached counts
+     * @param evictionPolicy
+     */
+    public CachingSearch(TextSearcher searcher, int maxEntries, long maxBytes, BoundedCache.EvictionPolicy evictionPolicy) {
+        this(searcher, textIdentity(searcher), maxEntries, maxBytes, evictionPolicy);
+    }
+
+    /**
+     * @param searcher
+     * @param textIdentity returns the current text of the searcher, or any object replaced together with it
+     * @param maxEntries maximal number of cached counts
+     * @param maxBytes maximal estimated size of the cached counts
+     * @param evictionPolicy
+     */
+    public CachingSearch(TextSearcher searcher, Supplier<?> textIdentity, int maxEntries, long maxBytes,
+                         BoundedCache.EvictionPolicy evictionPolicy) {
+        if (searcher == null || textIdentity == null) {
+            throw new IllegalArgumentException("A searcher and its text need to be chosen. Null is not valid.");
+        }
+        this.searcher = searcher;
+        this.textIdentity = textIdentity;
+        this.cache = new BoundedCache<>(maxEntries, maxBytes, (query, occurrences) -> weight(query.pattern()), evictionPolicy);
+        this.currentText = textIdentity.get();
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        return cache.computeIfAbsent(new Query(text(), pattern, null), query -> searcher.occurences(pattern));
+    }
+
+    @Override
+    public int occurences(String pattern, Overlap overlap) {
+        if (overlap == null) {
+            throw new IllegalArgumentException("An overlap needs to be chosen. Null is not valid.");
+        }
+        return cache.computeIfAbsent(new Query(text(), pattern, overlap), query -> searcher.occurences(pattern, overlap));
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return searcher.indexOf(pattern, fromIndex);
+    }
+
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        return searcher.matcher(pattern);
+    }
+
+    public TextSearcher getSearcher() {
+        return searcher;
+    }
+
+    public BoundedCache.Statistics statistics() {
+        return cache.statistics();
+    }
+
+    /**
+     * Removes all cached counts, e.g. after the text was modified in place.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Current text, removes the counts of the previous text if it was replaced.
+     */
+    private Object text() {
+        Object text = textIdentity.get();
+        synchronized (this) {
+            if (text != currentText) {
+                currentText = text;
+                cache.clear();
+            }
+        }
+        return text;
+    }
+
+    /**
+     * @return estimated bytes of an entry
+     */
+    static long weight(String pattern) {
+        return ENTRY_OVERHEAD + 2L * pattern.length();
+    }
+
+    private static Supplier<?> textIdentity(TextSearcher searcher) {
+        if (searcher instanceof BoyerMooreSearch boyerMooreSearch) {
+            return boyerMooreSearch::getText;
+        }
+        if (searcher instanceof NaiveSearch naiveSearch) {
+            return () -> naiveSearch.text;
+        }
+        if (searcher instanceof AdvancedNaiveSearchV1 advancedNaiveSearch) {
+            return () -> advancedNaiveSearch.text;
+        }
+        if (searcher instanceof AdvancedNaiveSearchV2 advancedNaiveSearch) {
+            return () -> advancedNaiveSearch.text;
+        }
+        // Immutable text
+        Object text = new Object();
+        return () -> text;
+    }
+}
@@ -0,0 +1,274 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compact index based pattern searching for static texts that are queried many times (FM-index). <br>
+ * The index stores the Burrows-Wheeler transform of the text instead of the text itself: the char in front of
+ * every suffix, in the order of the suffix array. A pattern is searched backwards, from its last char to its first.
+ * Every char narrows the range of suffixes starting with the rest of the pattern by two rank queries, so counting
+ * takes O(m) steps, independent of the length of the text. Counts overlapping occurrences, like NaiveSearch.
+ * <p>
+ * Rank queries use the number of every symbol in front of every 65536th position as int, the number since then at
+ * every 64th position as char and a scan of at most 63 symbols. That costs ∑ / 32 bytes per char, e.g. 3 for
+ * 95 printable ASCII chars. Only every 32nd text position of the suffix array is kept. The position of another
+ * suffix is found by walking backwards through the text (LF mapping) until a sampled one is reached. With up to 255
+ * different chars the transform needs one byte per char, see {@link #memoryFootprint()} for the total.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; number of different chars = ∑; number of occurrences = z;</li>
+ *  <li>preparation effort = O(n log n + n * ∑ / 64), extra space while building 16 bytes per char, see SuffixArraySearch</li>
+ *  <li>counting: bc, wc, ac = O(m)</li>
+ *  <li>positions: additionally O(z * 32 + z log z)</li>
+ * </ul>
+ */
+public class FmIndexSearch implements TextSearcher {
+    private static final int CHECKPOINT_DISTANCE = 64;
+    // Counts since the last superblock have to fit into a char
+    private static final int SUPERBLOCK_SHIFT = 16;
+    private static final int SAMPLE_DISTANCE = 32;
+
+    private final int textLength;
+    // Different chars of the text in ascending order, their symbol is their index + 1. Symbol 0 ends the text
+    private final char[] chars;
+    private final int numberOfSymbols;
+    // Burrows-Wheeler transform as symbols, only one of both is used
+    private final byte[] smallTransform;
+    private final char[] largeTransform;
+    // Number of symbols smaller than a symbol
+    private final int[] smallerSymbols;
+    // Number of every symbol in front of every superblock and since the superblock in front of every checkpoint
+    private final int[] superblocks;
+    private final char[] checkpoints;
+    // Rows of the sampled suffixes, the number of sampled rows in front of every word and their text positions
+    private final long[] sampledRows;
+    private final int[] sampledRowsBefore;
+    private final int[] samples;
+
+    public FmIndexSearch(String text) {
+        this.textLength = text.length();
+        this.chars = distinctChars(text);
+        if (chars.length > Character.MAX_VALUE) {
+            // Each symbol plus the end of the text has to fit into a char
+            throw new IllegalArgumentException("The text may consist of at most " + Character.MAX_VALUE + " different characters.");
+        }
+        this.numberOfSymbols = chars.length + 1;
+
+        int[] suffixArray = SuffixArraySearch.buildSuffixArray(text);
+        // Row 0 is the empty suffix behind the end of the text, it is smaller than all others
+        int rows = textLength + 1;
+        this.smallTransform = numberOfSymbols <= 256 ? new byte[rows] : null;
+        this.largeTransform = numberOfSymbols <= 256 ? null : new char[rows];
+        this.sampledRows = new long[(rows + 63) / 64];
+        int numberOfSamples = 0;
+        for (int row = 0; row < rows; row++) {
+            int suffix = row == 0 ? textLength : suffixArray[row - 1];
+            setSymbol(row, suffix == 0 ? 0 : symbol(text.charAt(suffix - 1)));
+            if (suffix % SAMPLE_DISTANCE == 0 || row == 0) {
+                sampledRows[row >>> 6] |= 1L << row;
+                numberOfSamples++;
+            }
+        }
+
+        this.sampledRowsBefore = new int[sampledRows.length];
+        for (int word = 1; word < sampledRows.length; word++) {
+            sampledRowsBefore[word] = sampledRowsBefore[word - 1] + Long.bitCount(sampledRows[word - 1]);
+        }
+        this.samples = new int[numberOfSamples];
+        for (int row = 0, sample = 0; row < rows; row++) {
+            if (isSampled(row)) {
+                samples[sample++] = row == 0 ? textLength : suffixArray[row - 1];
+            }
+        }
+
+        this.superblocks = new int[((rows >>> SUPERBLOCK_SHIFT) + 1) * numberOfSymbols];
+        this.checkpoints = new char[(rows / CHECKPOINT_DISTANCE + 1) * numberOfSymbols];
+        int[] counts = new int[numberOfSymbols];
+        // Checkpoints up to the end (inclusive), so rank(symbol, rows) needs no scan behind the transform
+        for (int row = 0; row <= rows; row++) {
+            if (row % CHECKPOINT_DISTANCE == 0) {
+                int superblock = (row >>> SUPERBLOCK_SHIFT) * numberOfSymbols;
+                if ((row & (1 << SUPERBLOCK_SHIFT) - 1) == 0) {
+                    System.arraycopy(counts, 0, superblocks, superblock, numberOfSymbols);
+                }
+                int checkpoint = row / CHECKPOINT_DISTANCE * numberOfSymbols;
+                for (int symbol = 0; symbol < numberOfSymbols; symbol++) {
+                    checkpoints[checkpoint + symbol] = (char) (counts[symbol] - superblocks[superblock + symbol]);
+                }
+            }
+            if (row < rows) {
+                counts[symbolAt(row)]++;
+            }
+        }
+
+        this.smallerSymbols = new int[numberOfSymbols];
+        for (int symbol = 1; symbol < numberOfSymbols; symbol++) {
+            smallerSymbols[symbol] = smallerSymbols[symbol - 1] + counts[symbol - 1];
+        }
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        long range = range(pattern);
+        return (int) (range >>> 32) - (int) range;
+    }
+
+    /**
+     * Overlapping occurrences are the size of the range, non-overlapping ones have to be picked from the sorted positions.
+     */
+    @Override
+    public int occurences(String pattern, Overlap overlap) {
+        if (overlap == Overlap.overlapping) {
+            return occurences(pattern);
+        }
+        return TextSearcher.super.occurences(pattern, overlap);
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        long range = range(pattern);
+        int first = -1;
+        for (int row = (int) range; row < (int) (range >>> 32); row++) {
+            int position = locate(row);
+            if (position >= fromIndex && (first == -1 || position < first)) {
+                first = position;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Locates and sorts the positions of the occurrences once, every call is then a binary search.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        int[] positions = positions(pattern);
+        return fromIndex -> {
+            int i = Arrays.binarySearch(positions, Math.max(0, fromIndex));
+            i = i >= 0 ? i : -i - 1;
+            return i < positions.length ? positions[i] : -1;
+        };
+    }
+
+    /**
+     * @param pattern
+     * @return starts of all occurrences in ascending order
+     */
+    public int[] positions(String pattern) {
+        long range = range(pattern);
+        int from = (int) range;
+        int[] positions = new int[(int) (range >>> 32) - from];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = locate(from + i);
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * The text itself isn't kept.
+     * @return approximate number of bytes used by the index
+     */
+    public long memoryFootprint() {
+        long transform = smallTransform != null ? smallTransform.length : 2L * largeTransform.length;
+        return transform + 2L * chars.length + 4L * smallerSymbols.length + 4L * superblocks.length + 2L * checkpoints.length
+                + 8L * sampledRows.length + 4L * sampledRowsBefore.length + 4L * samples.length;
+    }
+
+    public int getTextLength() {
+        return textLength;
+    }
+
+    /**
+     * Backward search.
+     * @return rows of the suffixes starting with the pattern, the first one in the lower and the end (exclusive)
+     * in the upper 32 bits
+     */
+    private long range(String pattern) {
+        // Like NaiveSearch, the empty pattern occurs in front of every char and behind the end of the text (row 0)
+        int from = 0;
+        int to = textLength + 1;
+        for (int i = pattern.length() - 1; i >= 0 && from < to; i--) {
+            int symbol = symbol(pattern.charAt(i));
+            if (symbol == -1) {
+                return 0;
+            }
+            from = smallerSymbols[symbol] + rank(symbol, from);
+            to = smallerSymbols[symbol] + rank(symbol, to);
+        }
+        return from < to ? (long) to << 32 | from : 0;
+    }
+
+    /**
+     * Walks backwards through the text until a sampled suffix is reached.
+     * @return text position of the suffix in the row
+     */
+    private int locate(int row) {
+        int steps = 0;
+        while (!isSampled(row)) {
+            // The sentinel is only in front of suffix 0, which is sampled
+            int symbol = symbolAt(row);
+            row = smallerSymbols[symbol] + rank(symbol, row);
+            steps++;
+        }
+        return samples[sampledRowsBefore[row >>> 6] + Long.bitCount(sampledRows[row >>> 6] & ((1L << row) - 1))] + steps;
+    }
+
+    /**
+     * @return number of the symbol in the transform in front of the row
+     */
+    private int rank(int symbol, int row) {
+        int checkpoint = row / CHECKPOINT_DISTANCE;
+        int rank = superblocks[(row >>> SUPERBLOCK_SHIFT) * numberOfSymbols + symbol] + checkpoints[checkpoint * numberOfSymbols + symbol];
+        for (int i = checkpoint * CHECKPOINT_DISTANCE; i < row; i++) {
+            if (symbolAt(i) == symbol) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    private boolean isSampled(int row) {
+        return (sampledRows[row >>> 6] & 1L << row) != 0;
+    }
+
+    private int symbolAt(int row) {
+        return smallTransform != null ? smallTransform[row] & 0xFF : largeTransform[row];
+    }
+
+    private void setSymbol(int row, int symbol) {
+        if (smallTransform != null) {
+            smallTransform[row] = (byte) symbol;
+        }
+        else {
+            largeTransform[row] = (char) symbol;
+        }
+    }
+
+    /**
+     * @return symbol of the char, -1 if it isn't in the text
+     */
+    private int symbol(char c) {
+        int index = Arrays.binarySearch(chars, c);
+        return index >= 0 ? index + 1 : -1;
+    }
+
+    private static char[] distinctChars(String text) {
+        boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        int numberOfChars = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (!seen[text.charAt(i)]) {
+                seen[text.charAt(i)] = true;
+                numberOfChars++;
+            }
+        }
+        char[] chars = new char[numberOfChars];
+        for (int c = 0, i = 0; i < numberOfChars; c++) {
+            if (seen[c]) {
+                chars[i++] = (char) c;
+            }
+        }
+        return chars;
+    }
+}
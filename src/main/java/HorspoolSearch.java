@@ -0,0 +1,77 @@
+/**
+ * Horspool variant of the Boyer-Moore algorithm. <br>
+ * The shift only depends on the text char below the last char of the pattern, no matter where a mismatch occurred.
+ * This keeps the inner loop simple and the shifts close to the pattern length on large alphabets.
+ * Like BoyerMooreSearch it counts overlapping occurrences.
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; alphabet length = ∑;</li>
+ *  Method occurrences:
+ *  <li>preparation effort = O(∑ + m)</li>
+ *  <li>bc = O(n / m) ; wc = O(n * m) ; ac = O(n / m) </li>
+ * </ul>
+ */
+public class HorspoolSearch extends BoyerMooreSearch {
+
+    public HorspoolSearch(String text, Alphabet alphabetType) {
+        super(text, alphabetType);
+    }
+
+    /**
+     * @param text
+     * @param alphabetType
+     * @param ignoreCase true to find the patterns in any case of their letters
+     */
+    public HorspoolSearch(String text, Alphabet alphabetType, boolean ignoreCase) {
+        super(text, alphabetType, ignoreCase);
+    }
+
+    @Override
+    protected int indexOf(CompiledPattern compiledPattern, int fromIndex, int toIndex, SearchProbe probe) {
+        checkAlphabet(compiledPattern);
+        String text = getText();
+        String pattern = compiledPattern.getSearchedPattern();
+        int patternLength = pattern.length();
+
+        int lastWindowStart = Math.min(text.length() - patternLength, toIndex - 1);
+
+        int windowStart = Math.max(0, fromIndex);
+        while (windowStart <= lastWindowStart) {
+            char lastCharInWindow = text.charAt(windowStart + patternLength - 1);
+            boolean lastCharMatches = compiledPattern.fold(lastCharInWindow) == pattern.charAt(patternLength - 1);
+            if (probe != null) {
+                probe.onComparison(windowStart + patternLength - 1, patternLength - 1, lastCharMatches);
+            }
+            if (lastCharMatches && matchesRest(text, compiledPattern, windowStart, probe)) {
+                if (probe != null) {
+                    probe.onMatch(windowStart);
+                }
+                return windowStart;
+            }
+            int shift = compiledPattern.horspoolShift(lastCharInWindow);
+            if (probe != null && windowStart + shift <= lastWindowStart) {
+                probe.onShift(windowStart, shift);
+            }
+            windowStart += shift;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the pattern without its last char from right to left with the text.
+     */
+    private boolean matchesRest(String text, CompiledPattern compiledPattern, int windowStart, SearchProbe probe) {
+        String pattern = compiledPattern.getSearchedPattern();
+        for (int counterInPattern = pattern.length() - 2; counterInPattern >= 0; counterInPattern--) {
+            boolean match = compiledPattern.fold(text.charAt(windowStart + counterInPattern)) == pattern.charAt(counterInPattern);
+            if (probe != null) {
+                probe.onComparison(windowStart + counterInPattern, counterInPattern, match);
+            }
+            if (!match) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Knuth-Morris-Pratt pattern searching algorithm. <br>
+ * Like the advanced naive search V1, it goes in linear time over the text with a single pointer and keeps track of
+ * the number of matched pattern chars. After a mismatch it doesn't start the pattern from the beginning, but falls
+ * back to the longest prefix of the pattern that is also a suffix of the matched chars, see {@link #failureTable(String)}.
+ * Thus it works for any pattern, also with repeated characters, and no text char is read twice.
+ * Counts overlapping occurrences, like NaiveSearch. Works for any chars.
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; </li>
+ *  <li>preparation effort = O(m), extra space O(m)</li>
+ *  <li>bc,wc,ac = O(n)</li>
+ * </ul>
+ */
+public class KmpSearch implements TextSearcher {
+    private final String text;
+    private SearchProbe probe;
+
+    public KmpSearch(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        if (pattern.isEmpty()) {
+            return occurences(pattern, Overlap.overlapping);
+        }
+        return occurences(pattern, failureTable(pattern));
+    }
+
+    /**
+     * Counts overlapping occurrences in a single pass. After an occurrence the search falls back like after a mismatch.
+     * @param pattern non-empty pattern
+     * @param failureTable failure table of the pattern, see {@link #failureTable(String)}
+     * @return number of occurrences
+     */
+    public int occurences(String pattern, int[] failureTable) {
+        SearchProbe probe = SearchMetrics.probe(this.probe);
+        if (probe != null) {
+            probe.onStart(getClass().getSimpleName(), text.length(), pattern);
+        }
+        int lastStart = text.length() - pattern.length();
+        int occurences = 0;
+        int positionInPattern = 0;
+        // The window starts at counterInText - positionInPattern
+        for (int counterInText = 0; counterInText - positionInPattern <= lastStart; counterInText++) {
+            positionInPattern = step(pattern, failureTable, counterInText, positionInPattern, lastStart, probe);
+            if (positionInPattern == pattern.length()) {
+                // Whole pattern matched
+                occurences++;
+                positionInPattern = fallBack(failureTable, counterInText, positionInPattern, lastStart, probe);
+            }
+        }
+        if (probe != null) {
+            probe.onEnd();
+        }
+        return occurences;
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return matcher(pattern).applyAsInt(fromIndex);
+    }
+
+    /**
+     * Calculates the failure table only once for all calls.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        if (pattern.isEmpty()) {
+            // Same as ShiftOrSearch: The empty pattern occurs at every position
+            return fromIndex -> Math.max(0, fromIndex) <= text.length() ? Math.max(0, fromIndex) : -1;
+        }
+        int[] failureTable = failureTable(pattern);
+        return fromIndex -> indexOf(pattern, failureTable, fromIndex);
+    }
+
+    /**
+     * @param pattern non-empty pattern
+     * @param failureTable failure table of the pattern, see {@link #failureTable(String)}
+     * @param fromIndex first possible start of an occurrence
+     * @return start of the first occurrence at or after fromIndex, -1 if there is none
+     */
+    public int indexOf(String pattern, int[] failureTable, int fromIndex) {
+        SearchProbe probe = this.probe;
+        int lastStart = text.length() - pattern.length();
+        int positionInPattern = 0;
+        for (int counterInText = Math.max(0, fromIndex); counterInText - positionInPattern <= lastStart; counterInText++) {
+            positionInPattern = step(pattern, failureTable, counterInText, positionInPattern, lastStart, probe);
+            if (positionInPattern == pattern.length()) {
+                // Whole pattern matched
+                if (probe != null) {
+                    probe.onMatch(counterInText - positionInPattern + 1);
+                }
+                return counterInText - positionInPattern + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calculates for every prefix of the pattern the length of its longest proper prefix that is also a suffix of it.
+     * After a mismatch behind the prefix, that many chars still match.
+     * @param pattern
+     * @return failure table indexed by the prefix length - 1
+     */
+    public static int[] failureTable(String pattern) {
+        int[] failureTable = new int[pattern.length()];
+        int length = 0;
+        for (int i = 1; i < pattern.length(); i++) {
+            while (length > 0 && pattern.charAt(i) != pattern.charAt(length)) {
+                length = failureTable[length - 1];
+            }
+            if (pattern.charAt(i) == pattern.charAt(length)) {
+                length++;
+            }
+            failureTable[i] = length;
+        }
+        return failureTable;
+    }
+
+    /**
+     * Observes steps of the searches, see {@link SearchProbe}.
+     * @param probe null to search unobserved
+     */
+    public void setProbe(SearchProbe probe) {
+        this.probe = probe;
+    }
+
+    public SearchProbe getProbe() {
+        return probe;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Compares one text char, after a mismatch again with the chars the pattern falls back to.
+     * @return number of matched pattern chars after the text char, the pattern length for an occurrence.
+     * If the window moved behind lastStart, the search ends anyway
+     */
+    private int step(String pattern, int[] failureTable, int counterInText, int positionInPattern, int lastStart, SearchProbe probe) {
+        char c = text.charAt(counterInText);
+        while (true) {
+            boolean match = c == pattern.charAt(positionInPattern);
+            if (probe != null) {
+                probe.onComparison(counterInText, positionInPattern, match);
+            }
+            if (match) {
+                return positionInPattern + 1;
+            }
+            if (positionInPattern == 0) {
+                // No prefix left -> The next window starts behind this char
+                if (probe != null && counterInText < lastStart) {
+                    probe.onShift(counterInText, 1);
+                }
+                return 0;
+            }
+            // Mismatch -> Fall back to the longest prefix that still matches
+            positionInPattern = fallBack(failureTable, counterInText - 1, positionInPattern, lastStart, probe);
+            if (counterInText - positionInPattern > lastStart) {
+                // The pattern doesn't fit into the rest of the text anymore
+                return positionInPattern;
+            }
+        }
+    }
+
+    /**
+     * Shifts the window behind the matched chars to the longest prefix that is also their suffix.
+     * @param lastMatched position in the text of the last matched char
+     * @param positionInPattern number of matched chars
+     * @return number of chars still matching after the shift
+     */
+    private static int fallBack(int[] failureTable, int lastMatched, int positionInPattern, int lastStart, SearchProbe probe) {
+        int fallBack = failureTable[positionInPattern - 1];
+        if (probe != null) {
+            int windowStart = lastMatched - positionInPattern + 1;
+            if (positionInPattern == failureTable.length) {
+                probe.onMatch(windowStart);
+            }
+            if (windowStart + positionInPattern - fallBack <= lastStart) {
+                probe.onShift(windowStart, positionInPattern - fallBack);
+            }
+        }
+        return fallBack;
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Boyer-Moore search (bad character heuristic) directly on the bytes of a memory mapped file. <br>
+ * The file is never copied into the heap, so files of several GB can be searched without reading them into a String.
+ * Every byte is one char of the alphabet, so only the ASCII alphabets of BoyerMooreSearch are supported. The unicode
+ * alphabet is rejected: A non-ASCII char takes several bytes in UTF-8 and would never be found.
+ * The file is mapped in regions of at most 1 GB because a MappedByteBuffer is indexed by int.
+ * Like BoyerMooreSearch it counts overlapping occurrences. Positions and counts are longs.
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>file length = n; pattern length = m; alphabet length = ∑;</li>
+ *  <li>To validate the file = O(n)</li>
+ *  Method occurrences:
+ *  <li>preparation effort = O(∑ + m)</li>
+ *  <li>bc = O(n / m) ; wc = O(n * m) ; ac = O(n / m) </li>
+ * </ul>
+ */
+public class MappedFileSearch {
+    /**
+     * Size of the mapped regions, has to be a power of two.
+     */
+    public static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+    private final Path file;
+    private final BoyerMooreSearch.Alphabet alphabetType;
+    private final long size;
+    private final MappedByteBuffer[] regions;
+    private final int regionShift;
+    private final int regionMask;
+
+    public MappedFileSearch(Path file, BoyerMooreSearch.Alphabet alphabetType) throws IOException {
+        this(file, alphabetType, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Maps the file and validates its bytes against the alphabet.
+     * @param file
+     * @param alphabetType
+     * @param regionSize size of the mapped regions, a power of two
+     */
+    public MappedFileSearch(Path file, BoyerMooreSearch.Alphabet alphabetType, int regionSize) throws IOException {
+        if (alphabetType == null) {
+            throw new IllegalArgumentException("An alphabet needs to be chosen. Null is not valid.");
+        }
+        if (alphabetType == BoyerMooreSearch.Alphabet.unicode) {
+            throw new IllegalArgumentException("The alphabet " + alphabetType + " can't be searched byte by byte, only ASCII alphabets are supported.");
+        }
+        if (regionSize < 1 || Integer.bitCount(regionSize) != 1) {
+            throw new IllegalArgumentException("The region size needs to be a power of two.");
+        }
+        this.file = file;
+        this.alphabetType = alphabetType;
+        this.regionShift = Integer.numberOfTrailingZeros(regionSize);
+        this.regionMask = regionSize - 1;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.size = channel.size();
+            this.regions = new MappedByteBuffer[(int) ((size + regionSize - 1) >>> regionShift)];
+            for (int i = 0; i < regions.length; i++) {
+                long position = (long) i << regionShift;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, size - position));
+            }
+        }
+        if (!isFileValid()) {
+            throw new IllegalArgumentException("The file consists of characters that are not included in the alphabet!");
+        }
+    }
+
+    public long occurences(String pattern) {
+        return occurences(BoyerMooreSearch.compile(pattern, alphabetType));
+    }
+
+    /**
+     * Same algorithm as BoyerMooreSearch, but on the mapped bytes. A pattern compiled with ignoreCase is found
+     * in any case of its letters, see {@link BoyerMooreSearch#compile(String, BoyerMooreSearch.Alphabet, boolean)}.
+     * @param compiledPattern pattern compiled for the alphabet of this searcher
+     * @return number of occurrences
+     */
+    public long occurences(BoyerMooreSearch.CompiledPattern compiledPattern) {
+        if (compiledPattern.getAlphabetType() != alphabetType) {
+            throw new IllegalArgumentException("The pattern was compiled for the alphabet " + compiledPattern.getAlphabetType()
+                    + " but the file uses " + alphabetType + ".");
+        }
+        String pattern = compiledPattern.getSearchedPattern();
+        if (pattern.isEmpty()) {
+            // Like BoyerMooreSearch: The empty pattern occurs at every start, also behind the last byte
+            return size + 1;
+        }
+
+        long occurrences = 0;
+        long counterInText = pattern.length() - 1;
+        int counterInPattern = pattern.length() - 1;
+
+        while (counterInText < size) {
+            char charInText = charAt(counterInText);
+            if (compiledPattern.fold(charInText) == pattern.charAt(counterInPattern)) {
+                // Match
+                if (counterInPattern == 0) {
+                    occurrences++;
+                    counterInText += pattern.length();
+                    counterInPattern = pattern.length() - 1;
+                }
+                else {
+                    counterInText--;
+                    counterInPattern--;
+                }
+            }
+            else {
+                // Jump to next position
+                int shift = compiledPattern.shift(charInText);
+                if (pattern.length() - counterInPattern > shift) {
+                    counterInText += pattern.length() - counterInPattern;
+                }
+                else {
+                    counterInText += shift;
+                }
+                // Reset counterInPattern
+                counterInPattern = pattern.length() - 1;
+            }
+        }
+
+        return occurrences;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public BoyerMooreSearch.Alphabet getAlphabetType() {
+        return alphabetType;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private boolean isFileValid() {
+        for (MappedByteBuffer region : regions) {
+            for (int i = 0; i < region.limit(); i++) {
+                if (!alphabetType.contains((char) (region.get(i) & 0xFF))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param position position in the file
+     * @return byte at the position as char
+     */
+    private char charAt(long position) {
+        return (char) (regions[(int) (position >>> regionShift)].get((int) position & regionMask) & 0xFF);
+    }
+}
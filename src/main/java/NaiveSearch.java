@@ -13,6 +13,7 @@ import java.util.Scanner;
  */
 public class NaiveSearch implements TextSearcher {
     protected String text;
+    private SearchProbe probe;
 
     public NaiveSearch(String text) {
         this.text = text;
@@ -20,11 +21,39 @@ public class NaiveSearch implements TextSearcher {
 
     @Override
     public int occurences(String pattern) {
+        // The empty pattern also occurs behind the last char
+        return occurences(pattern, 0, text.length() + 1);
+    }
+
+    /**
+     * Counts the occurrences starting in [fromIndex, toIndex). The text up to toIndex + m - 1 is read,
+     * so occurrences crossing toIndex are found too. Used to search chunks of the text in parallel.
+     * @param pattern
+     * @param fromIndex first possible start of an occurrence
+     * @param toIndex end (exclusive) of the possible starts
+     * @return number of occurrences starting in the range
+     */
+    public int occurences(String pattern, int fromIndex, int toIndex) {
+        return occurences(pattern, fromIndex, toIndex, SearchMetrics.probe(this.probe));
+    }
+
+    /**
+     * @param probe probe of the call, null to search unobserved
+     */
+    private int occurences(String pattern, int fromIndex, int toIndex, SearchProbe probe) {
+        int lastStart = Math.min(text.length() - pattern.length(), toIndex - 1);
+        if (probe != null) {
+            probe.onStart(getClass().getSimpleName(), Math.max(0, Math.min(text.length(), lastStart + pattern.length()) - fromIndex), pattern);
+        }
         int occurences = 0;
-        for (int counterInText = 0; counterInText <= (text.length() - pattern.length()); counterInText++) {
+        for (int counterInText = fromIndex; counterInText <= lastStart; counterInText++) {
             boolean match = true;
             for (int counterInPattern = 0; counterInPattern < pattern.length(); counterInPattern++) {
-                if (text.charAt(counterInText + counterInPattern) != pattern.charAt(counterInPattern)) {
+                boolean equal = text.charAt(counterInText + counterInPattern) == pattern.charAt(counterInPattern);
+                if (probe != null) {
+                    probe.onComparison(counterInText + counterInPattern, counterInPattern, equal);
+                }
+                if (!equal) {
                     match = false;
                     break;
                 }
@@ -32,31 +61,84 @@ public class NaiveSearch implements TextSearcher {
             if (match) {
                 occurences++;
             }
+            if (probe != null) {
+                onWindowEnd(probe, match, counterInText, lastStart);
+            }
+        }
+        if (probe != null) {
+            probe.onEnd();
         }
         return occurences;
     }
 
-    public void visualiseComparisons(String pattern) throws InterruptedException {
-        System.out.println(text);
-        String output = pattern;
-        String space = " ";
-
-        int occurences = 0;
-        for (int counterInText = 0; counterInText <= (text.length() - pattern.length()); counterInText++) {
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        SearchProbe probe = this.probe;
+        int lastStart = text.length() - pattern.length();
+        for (int counterInText = Math.max(0, fromIndex); counterInText <= lastStart; counterInText++) {
             boolean match = true;
             for (int counterInPattern = 0; counterInPattern < pattern.length(); counterInPattern++) {
-                System.out.print("\r" + output + " comparisons: " + (counterInPattern + 1) + "; occurences: " + occurences);
-                Thread.sleep(10000);
-
-                if (text.charAt(counterInText + counterInPattern) != pattern.charAt(counterInPattern)) {
+                boolean equal = text.charAt(counterInText + counterInPattern) == pattern.charAt(counterInPattern);
+                if (probe != null) {
+                    probe.onComparison(counterInText + counterInPattern, counterInPattern, equal);
+                }
+                if (!equal) {
                     match = false;
                     break;
                 }
             }
             if (match) {
-                occurences++;
+                if (probe != null) {
+                    probe.onMatch(counterInText);
+                }
+                return counterInText;
+            }
+            if (probe != null) {
+                onWindowEnd(probe, false, counterInText, lastStart);
             }
-            output = space + output;
         }
+        return -1;
+    }
+
+    /**
+     * Observes steps of the searches, see {@link SearchProbe}.
+     * @param probe null to search unobserved
+     */
+    public void setProbe(SearchProbe probe) {
+        this.probe = probe;
+    }
+
+    public SearchProbe getProbe() {
+        return probe;
+    }
+
+    /**
+     * Reports the match and the shift by one to the next window, if there is one.
+     */
+    private static void onWindowEnd(SearchProbe probe, boolean match, int counterInText, int lastStart) {
+        if (match) {
+            probe.onMatch(counterInText);
+        }
+        if (counterInText < lastStart) {
+            probe.onShift(counterInText, 1);
+        }
+    }
+
+    public void visualiseComparisons(String pattern) throws InterruptedException {
+        visualiseComparisons(pattern, 10000);
+    }
+
+    /**
+     * Searches the pattern at full speed while recording a {@link SearchTrace}, afterwards the steps are printed
+     * one by one.
+     * @param pattern
+     * @param delayMillis pause after every printed step
+     * @throws InterruptedException
+     */
+    public void visualiseComparisons(String pattern, long delayMillis) throws InterruptedException {
+        SearchTrace trace = new SearchTrace(SearchTrace.capacityFor(text.length(), pattern.length()));
+        // The probe of the searcher stays untouched, other threads may search at the same time
+        occurences(pattern, 0, text.length() + 1, SearchMetrics.probe(SearchProbe.both(probe, trace)));
+        trace.visualise(text, pattern, System.out, delayMillis);
     }
 }
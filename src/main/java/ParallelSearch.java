@@ -0,0 +1,140 @@
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Parallel mode for NaiveSearch and BoyerMooreSearch (including its variants). <br>
+ * The text is split into chunks which are searched on a ForkJoinPool, the counts of the chunks are summed up.
+ * A chunk counts the occurrences starting inside of it but reads pattern.length() - 1 chars into the next chunk,
+ * so the chunks overlap by that much. Every occurrence has exactly one start, therefore occurrences crossing a
+ * chunk boundary are counted exactly once.
+ * Both engines count overlapping occurrences, which are independent of each other, so the sum equals the
+ * sequential count.
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; number of threads = p; chunk size = c;</li>
+ *  <li>The work of the engine plus O(n / c * m) for the overlaps, divided by p</li>
+ * </ul>
+ */
+public class ParallelSearch implements TextSearcher {
+    /**
+     * Default chunk size in chars. Large enough to keep the task overhead small, small enough to balance the load.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final TextSearcher searcher;
+    private final PatternPreparation preparation;
+    // End (exclusive) of the possible starts of an occurrence
+    private final IntSupplier endOfStarts;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Counts the occurrences of one prepared pattern starting in [fromIndex, toIndex).
+     */
+    @FunctionalInterface
+    private interface RangeCounter {
+        int occurences(int fromIndex, int toIndex);
+    }
+
+    /**
+     * Prepares a pattern once per query, e.g. compiles it, before the chunks are searched.
+     */
+    @FunctionalInterface
+    private interface PatternPreparation {
+        RangeCounter prepare(String pattern);
+    }
+
+    public ParallelSearch(NaiveSearch searcher) {
+        this(searcher, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelSearch(NaiveSearch searcher, ForkJoinPool pool, int chunkSize) {
+        this(searcher, pattern -> (fromIndex, toIndex) -> searcher.occurences(pattern, fromIndex, toIndex),
+                // Like the sequential count, the empty pattern also occurs behind the last char
+                () -> searcher.text.length() + 1, pool, chunkSize);
+    }
+
+    public ParallelSearch(BoyerMooreSearch searcher) {
+        this(searcher, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelSearch(BoyerMooreSearch searcher, ForkJoinPool pool, int chunkSize) {
+        this(searcher, pattern -> {
+                    BoyerMooreSearch.CompiledPattern compiledPattern = searcher.compile(pattern);
+                    return (fromIndex, toIndex) -> searcher.occurences(compiledPattern, fromIndex, toIndex);
+                },
+                () -> searcher.getText().length() + 1, pool, chunkSize);
+    }
+
+    private ParallelSearch(TextSearcher searcher, PatternPreparation preparation, IntSupplier endOfStarts, ForkJoinPool pool, int chunkSize) {
+        if (pool == null) {
+            throw new IllegalArgumentException("A pool needs to be chosen. Null is not valid.");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size needs to be at least 1.");
+        }
+        this.searcher = searcher;
+        this.preparation = preparation;
+        this.endOfStarts = endOfStarts;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        RangeCounter counter = preparation.prepare(pattern);
+        return pool.invoke(new ChunkTask(counter, 0, endOfStarts.getAsInt()));
+    }
+
+    /**
+     * The first occurrence is usually close to the start, so it is searched sequentially.
+     */
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return searcher.indexOf(pattern, fromIndex);
+    }
+
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        return searcher.matcher(pattern);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Splits its range of starts in halves until it is at most one chunk, which is then searched.
+     */
+    private class ChunkTask extends RecursiveTask<Integer> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized, they only live during one search
+        private final transient RangeCounter counter;
+        private final int fromIndex;
+        private final int toIndex;
+
+        private ChunkTask(RangeCounter counter, int fromIndex, int toIndex) {
+            this.counter = counter;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (toIndex - fromIndex <= chunkSize) {
+                return counter.occurences(fromIndex, toIndex);
+            }
+            int middle = fromIndex + (toIndex - fromIndex) / 2;
+            ChunkTask right = new ChunkTask(counter, middle, toIndex);
+            right.fork();
+            int left = new ChunkTask(counter, fromIndex, middle).compute();
+            return left + right.join();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Multi pattern searching algorithm by Rabin and Karp for many patterns of the same length, e.g. IDs or hashes. <br>
+ * Every pattern is reduced to a fingerprint, a polynomial hash of its chars. A window of pattern length is moved
+ * over the text and its fingerprint is updated in constant time per char (rolling hash). The fingerprint of every
+ * window is looked up in an open-addressing hash set of the pattern fingerprints; only on a hit the window is
+ * compared with the patterns of that fingerprint, so hash collisions never produce wrong occurrences.
+ * <p>
+ * Unlike AhoCorasickSearch no automaton is built: The set holds one long and one int per slot and at most
+ * 4 slots per pattern, independent of the alphabet and the pattern length. In front of it a bit filter with 16 bits
+ * per pattern stays in the cache and rejects most windows without a random access to the set.
+ * Finds overlapping occurrences, works for any chars.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; number of patterns = k; number of windows with a hit = h;</li>
+ *  <li>preparation effort = O(k * m), extra space O(k)</li>
+ *  <li>bc, ac = O(n + h * m) ; wc = O(n * m), e.g. if every window is an occurrence</li>
+ * </ul>
+ */
+public class RabinKarpSearch implements TextSearcher {
+    // Odd multiplier of the polynomial hash, computed modulo 2^64
+    private static final long BASE = 0x100000001B3L;
+    // Spreads the fingerprints over the slots, the low bits of the polynomial hash are weak
+    private static final long SPREAD = 0x9E3779B97F4A7C15L;
+    // Bits of the filter per pattern; about 1 of 16 windows without an occurrence passes it
+    private static final int FILTER_BITS_PER_PATTERN = 16;
+
+    private final String text;
+
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * @param patternIndex index of the pattern in the compiled collection
+         * @param position start of the occurrence in the text
+         */
+        void onMatch(int patternIndex, int position);
+    }
+
+    /**
+     * Immutable hash set of the fingerprints of a collection of patterns. Reusable for other texts and threads.
+     */
+    public static final class Fingerprints {
+        private final String[] patterns;
+        private final int patternLength;
+        // BASE^(m - 1), removes the first char of a window from its fingerprint
+        private final long power;
+        // Open addressing with linear probing; a slot is empty if its entry is 0
+        private final long[] fingerprints;
+        // Index of the pattern + 1 per slot
+        private final int[] entries;
+        private final int shift;
+        // Bit per range of spread fingerprints with at least one pattern. Small enough for the cache,
+        // most windows are rejected without touching the larger hash set
+        private final long[] filter;
+        private final int filterShift;
+        // Index of the first equal pattern, duplicates are only inserted once
+        private final int[] firstEqualPattern;
+
+        private Fingerprints(String[] patterns) {
+            if (patterns.length == 0) {
+                throw new IllegalArgumentException("At least one pattern needs to be searched.");
+            }
+            this.patterns = patterns;
+            this.patternLength = patterns[0].length();
+            for (String pattern : patterns) {
+                if (pattern.isEmpty()) {
+                    throw new IllegalArgumentException("Empty patterns can't be searched.");
+                }
+                if (pattern.length() != patternLength) {
+                    throw new IllegalArgumentException("All patterns need to have the same length. "
+                            + pattern.length() + " differs from " + patternLength + ".");
+                }
+            }
+            long power = 1;
+            for (int i = 1; i < patternLength; i++) {
+                power *= BASE;
+            }
+            this.power = power;
+
+            // Load factor at most 1/2
+            int capacity = Integer.highestOneBit(Math.max(1, patterns.length - 1)) << 2;
+            this.fingerprints = new long[capacity];
+            this.entries = new int[capacity];
+            this.shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+            int filterBits = Math.max(Long.SIZE, Integer.highestOneBit(patterns.length * FILTER_BITS_PER_PATTERN - 1) << 1);
+            this.filter = new long[filterBits / Long.SIZE];
+            this.filterShift = Long.SIZE - Integer.numberOfTrailingZeros(filterBits);
+            this.firstEqualPattern = new int[patterns.length];
+            for (int patternIndex = 0; patternIndex < patterns.length; patternIndex++) {
+                insert(patternIndex, fingerprint(patterns[patternIndex], 0, patternLength));
+            }
+        }
+
+        private void insert(int patternIndex, long fingerprint) {
+            String pattern = patterns[patternIndex];
+            int slot = slot(fingerprint);
+            while (entries[slot] != 0) {
+                int other = entries[slot] - 1;
+                if (fingerprints[slot] == fingerprint && patterns[other].equals(pattern)) {
+                    // Duplicate -> Reported with the index of the first equal pattern
+                    firstEqualPattern[patternIndex] = other;
+                    return;
+                }
+                slot = (slot + 1) & (entries.length - 1);
+            }
+            fingerprints[slot] = fingerprint;
+            entries[slot] = patternIndex + 1;
+            int bit = filterBit(fingerprint);
+            filter[bit >>> 6] |= 1L << bit;
+            firstEqualPattern[patternIndex] = patternIndex;
+        }
+
+        private int slot(long fingerprint) {
+            return (int) ((fingerprint * SPREAD) >>> shift);
+        }
+
+        private int filterBit(long fingerprint) {
+            return (int) ((fingerprint * SPREAD) >>> filterShift);
+        }
+
+        /**
+         * @return false if no pattern has the fingerprint, true if one may have it
+         */
+        private boolean mayContain(long fingerprint) {
+            int bit = filterBit(fingerprint);
+            return (filter[bit >>> 6] & 1L << bit) != 0;
+        }
+
+        public int numberOfPatterns() {
+            return patterns.length;
+        }
+
+        public String getPattern(int patternIndex) {
+            return patterns[patternIndex];
+        }
+
+        public int getPatternLength() {
+            return patternLength;
+        }
+
+        /**
+         * @return number of slots of the hash set
+         */
+        public int capacity() {
+            return entries.length;
+        }
+    }
+
+    public RabinKarpSearch(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @param patterns non-empty patterns of the same length, duplicates are allowed
+     * @return fingerprints of all patterns
+     */
+    public static Fingerprints compile(Collection<String> patterns) {
+        return new Fingerprints(patterns.toArray(new String[0]));
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        return occurences(compile(List.of(pattern)))[0];
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return indexOf(compile(List.of(pattern)), fromIndex);
+    }
+
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        Fingerprints fingerprints = compile(List.of(pattern));
+        return fromIndex -> indexOf(fingerprints, fromIndex);
+    }
+
+    /**
+     * @param fingerprints
+     * @param fromIndex first possible start of an occurrence
+     * @return start of the first occurrence of any pattern at or after fromIndex, -1 if there is none
+     */
+    public int indexOf(Fingerprints fingerprints, int fromIndex) {
+        int patternLength = fingerprints.patternLength;
+        int lastStart = text.length() - patternLength;
+        int windowStart = Math.max(0, fromIndex);
+        if (windowStart > lastStart) {
+            return -1;
+        }
+        long fingerprint = fingerprint(text, windowStart, patternLength);
+        while (true) {
+            if (find(fingerprints, fingerprint, windowStart) != -1) {
+                return windowStart;
+            }
+            if (windowStart == lastStart) {
+                return -1;
+            }
+            fingerprint = roll(fingerprints, fingerprint, windowStart);
+            windowStart++;
+        }
+    }
+
+    /**
+     * Counts all patterns in a single pass over the text.
+     * @param fingerprints
+     * @return number of occurrences per pattern, in the order of the compiled collection
+     */
+    public int[] occurences(Fingerprints fingerprints) {
+        int[] occurrences = new int[fingerprints.numberOfPatterns()];
+        forEachMatch(fingerprints, (patternIndex, position) -> occurrences[patternIndex]++);
+        // Duplicates were only inserted once
+        for (int i = 0; i < occurrences.length; i++) {
+            occurrences[i] = occurrences[fingerprints.firstEqualPattern[i]];
+        }
+        return occurrences;
+    }
+
+    /**
+     * Reports all occurrences of all patterns in a single pass over the text, ordered by their start in the text.
+     * Duplicate patterns are reported with the index of their first occurrence in the compiled collection.
+     * @param fingerprints
+     * @param listener called for every occurrence
+     */
+    public void forEachMatch(Fingerprints fingerprints, MatchListener listener) {
+        int patternLength = fingerprints.patternLength;
+        int lastStart = text.length() - patternLength;
+        if (lastStart < 0) {
+            return;
+        }
+        long[] slots = fingerprints.fingerprints;
+        int[] entries = fingerprints.entries;
+        int mask = entries.length - 1;
+        long fingerprint = fingerprint(text, 0, patternLength);
+        for (int windowStart = 0; ; windowStart++) {
+            if (fingerprints.mayContain(fingerprint)) {
+                for (int slot = fingerprints.slot(fingerprint); entries[slot] != 0; slot = (slot + 1) & mask) {
+                    int patternIndex = entries[slot] - 1;
+                    // Equal fingerprints only make an occurrence likely -> Compare the chars
+                    if (slots[slot] == fingerprint && text.regionMatches(windowStart, fingerprints.patterns[patternIndex], 0, patternLength)) {
+                        listener.onMatch(patternIndex, windowStart);
+                    }
+                }
+            }
+            if (windowStart == lastStart) {
+                return;
+            }
+            fingerprint = roll(fingerprints, fingerprint, windowStart);
+        }
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return index of the first pattern occurring at the window, -1 if there is none
+     */
+    private int find(Fingerprints fingerprints, long fingerprint, int windowStart) {
+        if (!fingerprints.mayContain(fingerprint)) {
+            return -1;
+        }
+        int mask = fingerprints.entries.length - 1;
+        for (int slot = fingerprints.slot(fingerprint); fingerprints.entries[slot] != 0; slot = (slot + 1) & mask) {
+            int patternIndex = fingerprints.entries[slot] - 1;
+            if (fingerprints.fingerprints[slot] == fingerprint
+                    && text.regionMatches(windowStart, fingerprints.patterns[patternIndex], 0, fingerprints.patternLength)) {
+                return patternIndex;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the window one char to the right: Removes its first char and appends the char behind it.
+     * @return fingerprint of the window starting at windowStart + 1
+     */
+    private long roll(Fingerprints fingerprints, long fingerprint, int windowStart) {
+        return (fingerprint - text.charAt(windowStart) * fingerprints.power) * BASE + text.charAt(windowStart + fingerprints.patternLength);
+    }
+
+    private static long fingerprint(String string, int start, int length) {
+        long fingerprint = 0;
+        for (int i = start; i < start + length; i++) {
+            fingerprint = fingerprint * BASE + string.charAt(i);
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Probe counting the steps of searches: char comparisons, shifts with their total distance and matches.
+ * The counts add up over all searches the probe observes until {@link #reset()}.
+ * <p>
+ * A text char can be compared several times, e.g. by the naive search, so the comparisons are an upper bound of
+ * the chars read and {@link #skippedChars()} is a lower bound of the chars never read. A Boyer-Moore search that
+ * skips well reads far fewer chars than the text is long.
+ * </p>
+ * Not thread-safe, use one probe per thread.
+ */
+public class SearchCounters extends SearchProbe {
+    private String algorithm;
+    private long searches;
+    private long textLength;
+    private long comparisons;
+    private long mismatches;
+    private long shifts;
+    private long shiftDistance;
+    private long matches;
+
+    @Override
+    public void onStart(String algorithm, int textLength, String pattern) {
+        this.algorithm = algorithm;
+        this.searches++;
+        this.textLength += textLength;
+    }
+
+    @Override
+    public void onComparison(int positionInText, int positionInPattern, boolean match) {
+        comparisons++;
+        if (!match) {
+            mismatches++;
+        }
+    }
+
+    @Override
+    public void onShift(int windowStart, int distance) {
+        shifts++;
+        shiftDistance += distance;
+    }
+
+    @Override
+    public void onMatch(int position) {
+        matches++;
+    }
+
+    /**
+     * @return simple class name of the searcher of the last search, null if no search started
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public long searches() {
+        return searches;
+    }
+
+    /**
+     * @return total length of the searched texts
+     */
+    public long textLength() {
+        return textLength;
+    }
+
+    public long comparisons() {
+        return comparisons;
+    }
+
+    public long mismatches() {
+        return mismatches;
+    }
+
+    public long shifts() {
+        return shifts;
+    }
+
+    /**
+     * @return sum of all shift distances
+     */
+    public long shiftDistance() {
+        return shiftDistance;
+    }
+
+    /**
+     * @return average shift distance, 0 without shifts
+     */
+    public double averageShift() {
+        return shifts == 0 ? 0 : (double) shiftDistance / shifts;
+    }
+
+    public long matches() {
+        return matches;
+    }
+
+    /**
+     * @return upper bound of the text chars read, at most the text length
+     */
+    public long scannedChars() {
+        return Math.min(comparisons, textLength);
+    }
+
+    /**
+     * @return lower bound of the text chars never read
+     */
+    public long skippedChars() {
+        return textLength - scannedChars();
+    }
+
+    public void reset() {
+        algorithm = null;
+        searches = 0;
+        textLength = 0;
+        comparisons = 0;
+        mismatches = 0;
+        shifts = 0;
+        shiftDistance = 0;
+        matches = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCounters{algorithm=" + algorithm + ", searches=" + searches + ", textLength=" + textLength
+                + ", comparisons=" + comparisons + ", shifts=" + shifts + ", averageShift=" + averageShift()
+                + ", matches=" + matches + ", skippedChars=" + skippedChars() + "}";
+    }
+}
@@ -0,0 +1,133 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Metrics of all counting calls (occurences) of the searchers supported by {@link SearchProbe}. <br>
+ * While a listener is registered or the JFR event "search.Search" is enabled in a running flight recording,
+ * every counting call is observed by its own {@link SearchCounters}. After the call the counters are passed to the
+ * listeners and committed as {@link SearchEvent}, together with the duration of the call.
+ * Otherwise the searchers check two flags per call and run unobserved.
+ * <pre>
+ * java -XX:StartFlightRecording:filename=search.jfr ...
+ * jfr print --events search.Search search.jfr
+ * </pre>
+ */
+public final class SearchMetrics {
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static volatile boolean hasListeners;
+    // Looked up once, asking a new event instance would allocate one per counting call
+    private static final EventType SEARCH_EVENT_TYPE = EventType.getEventType(SearchEvent.class);
+
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called by the thread of the search after every observed counting call.
+         * @param counters steps of a single call, not modified afterwards
+         */
+        void onSearch(SearchCounters counters);
+    }
+
+    /**
+     * Flight recorder event of a single counting call.
+     */
+    @Name("search.Search")
+    @Label("Text Search")
+    @Category("Text Search")
+    @Description("Counting call of a text searcher with its comparisons and shifts")
+    public static final class SearchEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+        @Label("Text Length")
+        long textLength;
+        @Label("Pattern Length")
+        int patternLength;
+        @Label("Comparisons")
+        long comparisons;
+        @Label("Shifts")
+        long shifts;
+        @Label("Average Shift")
+        double averageShift;
+        @Label("Skipped Chars")
+        @Description("Lower bound of the text chars never read")
+        long skippedChars;
+        @Label("Matches")
+        long matches;
+    }
+
+    private SearchMetrics() {
+    }
+
+    public static void addListener(Listener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("A listener needs to be chosen. Null is not valid.");
+        }
+        LISTENERS.add(listener);
+        hasListeners = true;
+    }
+
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+        hasListeners = !LISTENERS.isEmpty();
+    }
+
+    /**
+     * @return true if counting calls are observed
+     */
+    public static boolean isEnabled() {
+        return hasListeners || SEARCH_EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Called once at the start of a counting call.
+     * @param probe probe set on the searcher, may be null
+     * @return probe of the call: the probe of the searcher, combined with fresh counters if metrics are enabled.
+     * Null if the call isn't observed at all
+     */
+    static SearchProbe probe(SearchProbe probe) {
+        if (!isEnabled()) {
+            return probe;
+        }
+        return SearchProbe.both(probe, new PublishingCounters());
+    }
+
+    /**
+     * Publishes itself at the end of the call.
+     */
+    private static final class PublishingCounters extends SearchCounters {
+        private final SearchEvent event = new SearchEvent();
+        private int patternLength;
+
+        @Override
+        public void onStart(String algorithm, int textLength, String pattern) {
+            super.onStart(algorithm, textLength, pattern);
+            patternLength = pattern.length();
+            event.begin();
+        }
+
+        @Override
+        public void onEnd() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.algorithm = getAlgorithm();
+                event.textLength = textLength();
+                event.patternLength = patternLength;
+                event.comparisons = comparisons();
+                event.shifts = shifts();
+                event.averageShift = averageShift();
+                event.skippedChars = skippedChars();
+                event.matches = matches();
+                event.commit();
+            }
+            for (Listener listener : LISTENERS) {
+                listener.onSearch(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Observes the steps of a search: comparisons of a text char with a pattern char, shifts of the pattern and matches.
+ * Set on a searcher with setProbe, see {@link SearchCounters} and {@link SearchMetrics}.
+ * All methods do nothing by default, so a probe only overrides the steps it needs.
+ * <p>
+ * The searchers check for a probe once per call and skip all calls if there is none, so an unobserved search
+ * runs at full speed. The methods are called from the thread running the search, a probe that is shared by
+ * several threads needs to synchronize itself.
+ * </p>
+ * <ul>
+ *  Supported searchers:
+ *  <li>NaiveSearch, AdvancedNaiveSearchV1 and AdvancedNaiveSearchV2</li>
+ *  <li>BoyerMooreSearch, BoyerMooreGoodSuffixSearch, HorspoolSearch and SundaySearch</li>
+ * </ul>
+ */
+public abstract class SearchProbe {
+
+    /**
+     * Called once per counting call (occurences) before the first step. Single indexOf calls don't start a search.
+     * @param algorithm simple class name of the searcher
+     * @param textLength length of the searched part of the text
+     * @param pattern
+     */
+    public void onStart(String algorithm, int textLength, String pattern) {
+    }
+
+    /**
+     * @param positionInText index of the compared text char
+     * @param positionInPattern index of the compared pattern char
+     * @param match true if the chars are equal
+     */
+    public void onComparison(int positionInText, int positionInPattern, boolean match) {
+    }
+
+    /**
+     * The pattern is moved to the right.
+     * @param windowStart position of the first pattern char in the text before the shift
+     * @param distance number of chars the pattern is moved
+     */
+    public void onShift(int windowStart, int distance) {
+    }
+
+    /**
+     * @param position start of the occurrence in the text
+     */
+    public void onMatch(int position) {
+    }
+
+    /**
+     * Called once per counting call after the last step.
+     */
+    public void onEnd() {
+    }
+
+    /**
+     * @return probe passing every step on to both probes, first to first
+     */
+    public static SearchProbe both(SearchProbe first, SearchProbe second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return new SearchProbe() {
+            @Override
+            public void onStart(String algorithm, int textLength, String pattern) {
+                first.onStart(algorithm, textLength, pattern);
+                second.onStart(algorithm, textLength, pattern);
+            }
+
+            @Override
+            public void onComparison(int positionInText, int positionInPattern, boolean match) {
+                first.onComparison(positionInText, positionInPattern, match);
+                second.onComparison(positionInText, positionInPattern, match);
+            }
+
+            @Override
+            public void onShift(int windowStart, int distance) {
+                first.onShift(windowStart, distance);
+                second.onShift(windowStart, distance);
+            }
+
+            @Override
+            public void onMatch(int position) {
+                first.onMatch(position);
+                second.onMatch(position);
+            }
+
+            @Override
+            public void onEnd() {
+                first.onEnd();
+                second.onEnd();
+            }
+        };
+    }
+}
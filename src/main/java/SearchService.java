@@ -0,0 +1,330 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search service answering the queries of many concurrent clients against one shared text. <br>
+ * Queries arriving within a short batch window are collected and answered together: The distinct patterns of a
+ * batch are compiled into one Aho-Corasick automaton, so a single pass over the text counts all of them.
+ * The batches run on virtual threads, a client waits for its query on its own (virtual) thread without blocking
+ * a platform thread.
+ * <p>
+ * Clients call {@link #submit(String)} or the blocking {@link #occurences(String)} in-process, or connect to
+ * {@link #listen(int)}: Every line sent is a pattern, the answer is a line with the number of occurrences
+ * or "ERROR" and the reason. Counts overlapping occurrences, like NaiveSearch.
+ * The latencies from submitting a query to its answer are kept for the last 16384 queries, see {@link #statistics()}.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; sum of the distinct pattern lengths of a batch = M; alphabet length of the batch = ∑;</li>
+ *  <li>per batch = O(M * ∑ + n + number of occurrences)</li>
+ * </ul>
+ */
+public class SearchService implements TextSearcher, AutoCloseable {
+    public static final Duration DEFAULT_BATCH_WINDOW = Duration.ofMillis(1);
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+    private static final int LATENCY_SAMPLES = 1 << 14;
+
+    private final AhoCorasickSearch searcher;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Query> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread dispatcher;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+    private ServerSocket serverSocket;
+
+    // Ring buffer of the latest latencies in nanoseconds
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long answered;
+    private long batches;
+
+    private record Query(String pattern, long submitted, CompletableFuture<Integer> result) {
+    }
+
+    /**
+     * @param queries answered queries
+     * @param batches passes over the text
+     * @param p50 median latency of the latest queries
+     * @param p99 99th percentile of the latency of the latest queries
+     */
+    public record Statistics(long queries, long batches, Duration p50, Duration p99) {
+        public double averageBatchSize() {
+            return batches == 0 ? 0 : (double) queries / batches;
+        }
+    }
+
+    public SearchService(String text) {
+        this(text, DEFAULT_BATCH_WINDOW, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param text shared text, any chars are allowed
+     * @param batchWindow time the first query of a batch waits for further queries
+     * @param maxBatchSize maximal number of queries per batch, a full batch is answered at once
+     */
+    public SearchService(String text, Duration batchWindow, int maxBatchSize) {
+        if (batchWindow == null || batchWindow.isNegative()) {
+            throw new IllegalArgumentException("The batch window can't be negative or null.");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("A batch needs to hold at least one query.");
+        }
+        this.searcher = new AhoCorasickSearch(text);
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.dispatcher = Thread.ofVirtual().name("search-service-dispatcher").start(this::dispatch);
+    }
+
+    /**
+     * Queues the query for the next batch.
+     * @param pattern non-empty pattern
+     * @return number of occurrences, completed exceptionally with an IllegalArgumentException for an empty pattern
+     * and with an IllegalStateException if the service is closed before
+     */
+    public CompletableFuture<Integer> submit(String pattern) {
+        if (closed) {
+            throw new IllegalStateException("The search service is closed.");
+        }
+        Query query = new Query(pattern, System.nanoTime(), new CompletableFuture<>());
+        queue.add(query);
+        if (closed) {
+            // Closed in between, the dispatcher may already be gone
+            failQueued();
+        }
+        return query.result();
+    }
+
+    /**
+     * Blocks until the batch of the query is answered.
+     */
+    @Override
+    public int occurences(String pattern) {
+        try {
+            return submit(pattern).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Not batched, searched directly on the thread of the caller.
+     */
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return searcher.indexOf(pattern, fromIndex);
+    }
+
+    /**
+     * Serves the line protocol on the loopback address, every connection on its own virtual thread.
+     * @param port 0 for any free port
+     * @return port the service listens on
+     * @throws IOException
+     */
+    public synchronized int listen(int port) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The search service is closed.");
+        }
+        if (serverSocket != null) {
+            throw new IllegalStateException("The search service already listens on port " + serverSocket.getLocalPort() + ".");
+        }
+        serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        ServerSocket acceptingSocket = serverSocket;
+        executor.execute(() -> accept(acceptingSocket));
+        return serverSocket.getLocalPort();
+    }
+
+    public synchronized Statistics statistics() {
+        long[] latest = Arrays.copyOf(latencies, (int) Math.min(answered, LATENCY_SAMPLES));
+        Arrays.sort(latest);
+        return new Statistics(answered, batches, Duration.ofNanos(percentile(latest, 0.5)), Duration.ofNanos(percentile(latest, 0.99)));
+    }
+
+    public String getText() {
+        return searcher.getText();
+    }
+
+    /**
+     * Stops accepting queries and connections. Queued queries fail, running batches are finished.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (serverSocket != null) {
+                closeQuietly(serverSocket);
+            }
+        }
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        dispatcher.interrupt();
+        try {
+            dispatcher.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued();
+        executor.close();
+    }
+
+    /**
+     * Collects the queries arriving within the batch window after the first one and hands the batch to a virtual thread.
+     */
+    private void dispatch() {
+        while (!closed) {
+            List<Query> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + batchWindowNanos;
+                while (batch.size() < maxBatchSize) {
+                    Query query = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (query == null) {
+                        break;
+                    }
+                    batch.add(query);
+                }
+            }
+            catch (InterruptedException e) {
+                // Closed, the queries collected so far are still answered
+                return;
+            }
+            finally {
+                if (!batch.isEmpty()) {
+                    executor.execute(() -> answer(batch));
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts all distinct patterns of the batch in one pass.
+     */
+    private void answer(List<Query> batch) {
+        // Index of every distinct pattern in the automaton
+        Map<String, Integer> patterns = new LinkedHashMap<>();
+        for (Query query : batch) {
+            if (query.pattern() != null && !query.pattern().isEmpty()) {
+                patterns.putIfAbsent(query.pattern(), patterns.size());
+            }
+        }
+        int[] occurrences = null;
+        RuntimeException failure = null;
+        try {
+            occurrences = patterns.isEmpty() ? new int[0] : searcher.occurences(searcher.compile(patterns.keySet()));
+        }
+        catch (RuntimeException e) {
+            failure = e;
+        }
+        // Recorded before the clients are woken up, so the statistics include every answered query
+        long now = System.nanoTime();
+        synchronized (this) {
+            for (Query query : batch) {
+                latencies[(int) (answered++ % LATENCY_SAMPLES)] = now - query.submitted();
+            }
+            batches++;
+        }
+        for (Query query : batch) {
+            Integer patternIndex = query.pattern() == null ? null : patterns.get(query.pattern());
+            if (patternIndex == null) {
+                query.result().completeExceptionally(new IllegalArgumentException("An empty pattern can't be searched."));
+            }
+            else if (failure != null) {
+                query.result().completeExceptionally(failure);
+            }
+            else {
+                query.result().complete(occurrences[patternIndex]);
+            }
+        }
+    }
+
+    private void accept(ServerSocket acceptingSocket) {
+        while (!acceptingSocket.isClosed()) {
+            try {
+                Socket connection = acceptingSocket.accept();
+                connections.add(connection);
+                executor.execute(() -> serve(connection));
+            }
+            catch (IOException e) {
+                // Closed or failed connection, the loop condition decides
+            }
+        }
+    }
+
+    /**
+     * Answers the lines of one connection in order.
+     */
+    private void serve(Socket connection) {
+        try (connection;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            for (String pattern = in.readLine(); pattern != null; pattern = in.readLine()) {
+                try {
+                    out.println(occurences(pattern));
+                }
+                catch (RuntimeException e) {
+                    out.println("ERROR " + e.getMessage());
+                }
+            }
+        }
+        catch (IOException e) {
+            // Connection closed by the client or by close()
+        }
+        finally {
+            connections.remove(connection);
+        }
+    }
+
+    private void failQueued() {
+        for (Query query = queue.poll(); query != null; query = queue.poll()) {
+            query.result().completeExceptionally(new IllegalStateException("The search service is closed."));
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        }
+        catch (Exception e) {
+            // Already closed
+        }
+    }
+}
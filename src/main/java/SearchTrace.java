@@ -0,0 +1,290 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Probe recording every step of a search into a preallocated ring buffer, see {@link SearchProbe}. <br>
+ * A step is encoded in one long, so recording costs a store and an increment and doesn't allocate. If the buffer is
+ * full, the oldest steps are overwritten. A trace can be written to a compact binary file, read again and replayed
+ * into any other probe, e.g. to analyse a search of a production-size text offline.
+ * <p>
+ * The visualisations of the searchers replay a trace: The search runs at full speed first,
+ * afterwards {@link #visualise(String, String, PrintStream, long)} prints its steps one by one.
+ * </p>
+ * Not thread-safe, use one trace per search.
+ * <ul>
+ *  Encoding of a step:
+ *  <li>bits 61 - 63: kind of the step</li>
+ *  <li>bits 32 - 60: position in the pattern, shift distance or pattern length</li>
+ *  <li>bits 0 - 31: position in the text, window start or text length</li>
+ * </ul>
+ */
+public class SearchTrace extends SearchProbe {
+    /**
+     * Patterns need to be shorter, so all positions in the pattern and shift distances fit into 29 bits.
+     */
+    public static final int MAX_PATTERN_LENGTH = (1 << 29) - 2;
+
+    private static final int MAGIC = 0x53545243;
+    private static final int VERSION = 1;
+
+    private static final int START = 0;
+    private static final int MATCHING_COMPARISON = 1;
+    private static final int MISMATCHING_COMPARISON = 2;
+    private static final int SHIFT = 3;
+    private static final int MATCH = 4;
+    private static final int END = 5;
+
+    private final long[] steps;
+    // Index of the next step in the ring buffer
+    private int next;
+    private long recorded;
+    private String algorithm = "";
+    private String pattern = "";
+
+    /**
+     * @param capacity maximal number of steps kept, older steps are overwritten
+     */
+    public SearchTrace(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The trace needs to hold at least one step.");
+        }
+        this.steps = new long[capacity];
+    }
+
+    /**
+     * A window costs at most m comparisons, a shift and a match. The advanced naive search V1 compares a text char
+     * at most twice.
+     * @return capacity holding all steps of a counting call, at most 16M steps
+     */
+    public static int capacityFor(int textLength, int patternLength) {
+        return (int) Math.min(1 << 24, ((long) textLength + 1) * (patternLength + 4));
+    }
+
+    @Override
+    public void onStart(String algorithm, int textLength, String pattern) {
+        if (pattern.length() > MAX_PATTERN_LENGTH) {
+            throw new IllegalArgumentException("Patterns with more than " + MAX_PATTERN_LENGTH + " chars can't be traced.");
+        }
+        this.algorithm = algorithm;
+        this.pattern = pattern;
+        record(START, pattern.length(), textLength);
+    }
+
+    @Override
+    public void onComparison(int positionInText, int positionInPattern, boolean match) {
+        record(match ? MATCHING_COMPARISON : MISMATCHING_COMPARISON, positionInPattern, positionInText);
+    }
+
+    @Override
+    public void onShift(int windowStart, int distance) {
+        record(SHIFT, distance, windowStart);
+    }
+
+    @Override
+    public void onMatch(int position) {
+        record(MATCH, 0, position);
+    }
+
+    @Override
+    public void onEnd() {
+        record(END, 0, 0);
+    }
+
+    /**
+     * Calls the probe for every kept step from the oldest to the newest.
+     * The pattern passed to onStart only has the right length, its chars are those of the last traced pattern.
+     * @param probe
+     */
+    public void replay(SearchProbe probe) {
+        for (int i = 0; i < size(); i++) {
+            long step = step(i);
+            int low = low(step);
+            int high = high(step);
+            switch (kind(step)) {
+                case START -> probe.onStart(algorithm, low, patternOfLength(high));
+                case MATCHING_COMPARISON -> probe.onComparison(low, high, true);
+                case MISMATCHING_COMPARISON -> probe.onComparison(low, high, false);
+                case SHIFT -> probe.onShift(low, high);
+                case MATCH -> probe.onMatch(low);
+                default -> probe.onEnd();
+            }
+        }
+    }
+
+    /**
+     * Prints the steps one by one below the text: The pattern at its current window, the number of comparisons in
+     * the window, the last shift and the occurrences found so far. Every line overwrites the previous one.
+     * @param text searched text
+     * @param pattern searched pattern
+     * @param out
+     * @param delayMillis pause after every line
+     * @throws InterruptedException
+     */
+    public void visualise(String text, String pattern, PrintStream out, long delayMillis) throws InterruptedException {
+        out.println(text);
+        int windowStart = 0;
+        int comparisons = 0;
+        int lastShift = 0;
+        int occurrences = 0;
+        for (int i = 0; i < size(); i++) {
+            long step = step(i);
+            switch (kind(step)) {
+                case MATCHING_COMPARISON, MISMATCHING_COMPARISON -> {
+                    windowStart = low(step) - high(step);
+                    comparisons++;
+                    out.print("\r" + " ".repeat(Math.max(0, windowStart)) + pattern + " comparisons: " + comparisons
+                            + "; shift: " + lastShift + "; occurrences: " + occurrences);
+                    Thread.sleep(delayMillis);
+                }
+                case SHIFT -> {
+                    windowStart = low(step) + high(step);
+                    comparisons = 0;
+                    lastShift = high(step);
+                }
+                case MATCH -> occurrences++;
+                default -> {
+                    // Start and end of the search aren't displayed
+                }
+            }
+        }
+        out.println();
+    }
+
+    /**
+     * @return number of kept steps
+     */
+    public int size() {
+        return (int) Math.min(recorded, steps.length);
+    }
+
+    public int capacity() {
+        return steps.length;
+    }
+
+    /**
+     * @return number of steps overwritten because the buffer was full
+     */
+    public long dropped() {
+        return recorded - size();
+    }
+
+    /**
+     * @return simple class name of the searcher of the last traced search
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return pattern of the last traced search
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    public void clear() {
+        next = 0;
+        recorded = 0;
+    }
+
+    /**
+     * Writes the kept steps from the oldest to the newest, together with the algorithm and the pattern.
+     * @param file
+     * @throws IOException
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, algorithm);
+            writeString(out, pattern);
+            out.writeLong(dropped());
+            out.writeInt(size());
+            for (int i = 0; i < size(); i++) {
+                out.writeLong(step(i));
+            }
+        }
+    }
+
+    /**
+     * @param file written by {@link #write(Path)}
+     * @return trace with exactly the steps of the file
+     * @throws IOException
+     */
+    public static SearchTrace read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalArgumentException("The file " + file + " is no search trace.");
+            }
+            String algorithm = readString(in);
+            String pattern = readString(in);
+            long dropped = in.readLong();
+            int size = in.readInt();
+            SearchTrace trace = new SearchTrace(Math.max(1, size));
+            for (int i = 0; i < size; i++) {
+                trace.steps[i] = in.readLong();
+            }
+            trace.next = size % trace.steps.length;
+            trace.recorded = dropped + size;
+            trace.algorithm = algorithm;
+            trace.pattern = pattern;
+            return trace;
+        }
+    }
+
+    private void record(int kind, int high, int low) {
+        steps[next] = (long) kind << 61 | (long) high << 32 | (low & 0xFFFFFFFFL);
+        if (++next == steps.length) {
+            next = 0;
+        }
+        recorded++;
+    }
+
+    /**
+     * @param i 0 for the oldest kept step
+     */
+    private long step(int i) {
+        int oldest = recorded > steps.length ? next : 0;
+        int index = oldest + i;
+        return steps[index < steps.length ? index : index - steps.length];
+    }
+
+    private static int kind(long step) {
+        return (int) (step >>> 61);
+    }
+
+    private static int high(long step) {
+        return (int) (step >>> 32) & ((1 << 29) - 1);
+    }
+
+    private static int low(long step) {
+        return (int) step;
+    }
+
+    private String patternOfLength(int length) {
+        return length == pattern.length() ? pattern : "?".repeat(length);
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        out.writeInt(string.length());
+        out.writeChars(string);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IllegalArgumentException("The search trace is corrupt.");
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = in.readChar();
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Bit-parallel pattern searching algorithm Shift-Or (Baeza-Yates and Gonnet). <br>
+ * Bit j of the state is 0 if the last j + 1 chars of the text equal the first j + 1 chars of the pattern.
+ * Every text char shifts the state by one and ors in the mask of the char, which has a 0 at every position
+ * of the char in the pattern. An occurrence ends where bit m - 1 is 0. The inner loop is one shift, one or and one
+ * table lookup per char without data dependent branches, so its speed hardly depends on the text or the pattern.
+ * Counts overlapping occurrences, like NaiveSearch.
+ * <p>
+ * The masks are indexed by the position of a char in the BoyerMooreSearch.Alphabet. Patterns of up to 64 chars
+ * keep the state in one long, longer patterns in an array of longs. Chars of the unicode alphabet can share an
+ * index, so with the unicode alphabet every occurrence found is compared with the pattern once more.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; alphabet length = ∑; word length = w = 64;</li>
+ *  <li>To validate the text = O(n)</li>
+ *  <li>preparation effort = O(∑ * m / w + m)</li>
+ *  <li>bc, wc, ac = O(n * m / w)</li>
+ * </ul>
+ */
+public class ShiftOrSearch implements TextSearcher {
+    private final String text;
+    private final BoyerMooreSearch.Alphabet alphabetType;
+
+    public ShiftOrSearch(String text, BoyerMooreSearch.Alphabet alphabetType) {
+        if (alphabetType == null) {
+            throw new IllegalArgumentException("An alphabet needs to be chosen. Null is not valid.");
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!alphabetType.contains(text.charAt(i))) {
+                throw new IllegalArgumentException("The text consists of characters that are not included in the alphabet!");
+            }
+        }
+        this.text = text;
+        this.alphabetType = alphabetType;
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        return occurences(pattern, Overlap.overlapping);
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return matcher(pattern).applyAsInt(fromIndex);
+    }
+
+    /**
+     * Builds the masks once for all calls.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        if (pattern.isEmpty()) {
+            // Same as NaiveSearch: The empty pattern occurs at every position
+            return fromIndex -> Math.max(0, fromIndex) <= text.length() ? Math.max(0, fromIndex) : -1;
+        }
+        for (int i = 0; i < pattern.length(); i++) {
+            if (!alphabetType.contains(pattern.charAt(i))) {
+                // Can't occur in a valid text
+                return fromIndex -> -1;
+            }
+        }
+        long[] masks = initMasks(pattern, alphabetType);
+        if (pattern.length() <= Long.SIZE) {
+            return fromIndex -> indexOf(pattern, masks, fromIndex);
+        }
+        return fromIndex -> indexOfMultiWord(pattern, masks, fromIndex);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public BoyerMooreSearch.Alphabet getAlphabetType() {
+        return alphabetType;
+    }
+
+    /**
+     * Pattern of at most 64 chars, the state is one long.
+     */
+    private int indexOf(String pattern, long[] masks, int fromIndex) {
+        long matchBit = 1L << (pattern.length() - 1);
+        long state = ~0L;
+        for (int counterInText = Math.max(0, fromIndex); counterInText < text.length(); counterInText++) {
+            state = state << 1 | masks[alphabetType.index(text.charAt(counterInText))];
+            if ((state & matchBit) == 0) {
+                int start = counterInText - pattern.length() + 1;
+                if (isMatch(pattern, start)) {
+                    return start;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Pattern of more than 64 chars, the state is an array of longs. Bit j is bit j % 64 of long j / 64,
+     * the highest bit of a long is carried into the next one.
+     */
+    private int indexOfMultiWord(String pattern, long[] masks, int fromIndex) {
+        int words = words(pattern.length());
+        int matchWord = (pattern.length() - 1) / Long.SIZE;
+        long matchBit = 1L << (pattern.length() - 1);
+        long[] state = new long[words];
+        Arrays.fill(state, ~0L);
+        for (int counterInText = Math.max(0, fromIndex); counterInText < text.length(); counterInText++) {
+            int row = alphabetType.index(text.charAt(counterInText)) * words;
+            for (int word = words - 1; word > 0; word--) {
+                state[word] = (state[word] << 1 | state[word - 1] >>> 63) | masks[row + word];
+            }
+            state[0] = state[0] << 1 | masks[row];
+            if ((state[matchWord] & matchBit) == 0) {
+                int start = counterInText - pattern.length() + 1;
+                if (isMatch(pattern, start)) {
+                    return start;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Only chars sharing an index with a pattern char can cause a false match.
+     */
+    private boolean isMatch(String pattern, int start) {
+        return !alphabetType.hasSharedIndices() || text.regionMatches(start, pattern, 0, pattern.length());
+    }
+
+    /**
+     * @return masks of all indices of the alphabet, one row of words(m) longs per index. Bit j is 0 if the char at
+     * position j of the pattern has the index
+     */
+    private static long[] initMasks(String pattern, BoyerMooreSearch.Alphabet alphabetType) {
+        int words = words(pattern.length());
+        long[] masks = new long[alphabetType.size() * words];
+        Arrays.fill(masks, ~0L);
+        for (int i = 0; i < pattern.length(); i++) {
+            masks[alphabetType.index(pattern.charAt(i)) * words + i / Long.SIZE] &= ~(1L << i);
+        }
+        return masks;
+    }
+
+    private static int words(int patternLength) {
+        return (patternLength + Long.SIZE - 1) / Long.SIZE;
+    }
+}
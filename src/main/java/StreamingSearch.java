@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Pattern searching on a stream of chunks, e.g. from a socket or an InputStream. <br>
+ * Works like AdvancedNaiveSearchV1 with only one pointer over the text and positionInPattern as the state,
+ * which is carried over from one chunk to the next. To allow patterns with repeated characters a mismatch doesn't
+ * reset positionInPattern to 0 but to the longest prefix of the pattern that still matches (Knuth-Morris-Pratt,
+ * see KmpSearch).
+ * Occurrences are reported as soon as their last char arrives, overlapping ones included.
+ * The memory only depends on the pattern length, not on the length of the stream.
+ * <p>
+ * Bytes are read as ISO-8859-1 chars, one byte per char. A searcher keeps the state of one stream and must not be
+ * fed by several threads at once.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>stream length = n; pattern length = m; </li>
+ *  <li>preparation effort = O(m)</li>
+ *  <li>bc,wc,ac = O(n)</li>
+ * </ul>
+ */
+public class StreamingSearch {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String pattern;
+    private final int[] failureTable;
+    private final MatchListener listener;
+
+    private int positionInPattern;
+    private long position;
+    private long occurrences;
+
+    @FunctionalInterface
+    public interface MatchListener {
+        /**
+         * @param position start of the occurrence in the stream
+         */
+        void onMatch(long position);
+    }
+
+    /**
+     * Only counts the occurrences.
+     * @param pattern
+     */
+    public StreamingSearch(String pattern) {
+        this(pattern, position -> { });
+    }
+
+    /**
+     * @param pattern
+     * @param listener called for every occurrence as soon as it is complete
+     */
+    public StreamingSearch(String pattern, MatchListener listener) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("An empty pattern can't be searched.");
+        }
+        this.pattern = pattern;
+        this.failureTable = KmpSearch.failureTable(pattern);
+        this.listener = listener;
+    }
+
+    public void feed(CharSequence chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            next(chunk.charAt(i));
+        }
+    }
+
+    /**
+     * Consumes the remaining bytes of the buffer.
+     * @param chunk
+     */
+    public void feed(ByteBuffer chunk) {
+        while (chunk.hasRemaining()) {
+            next((char) (chunk.get() & 0xFF));
+        }
+    }
+
+    /**
+     * Feeds the stream chunk by chunk until it ends. The stream isn't closed.
+     * @param stream
+     * @return number of bytes read
+     */
+    public long feed(InputStream stream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long bytesRead = 0;
+        int length;
+        while ((length = stream.read(buffer)) != -1) {
+            for (int i = 0; i < length; i++) {
+                next((char) (buffer[i] & 0xFF));
+            }
+            bytesRead += length;
+        }
+        return bytesRead;
+    }
+
+    /**
+     * Starts a new stream.
+     */
+    public void reset() {
+        positionInPattern = 0;
+        position = 0;
+        occurrences = 0;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return number of occurrences found so far
+     */
+    public long getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * @return number of chars consumed so far
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    private void next(char c) {
+        while (positionInPattern > 0 && c != pattern.charAt(positionInPattern)) {
+            // Mismatch -> Fall back to the longest prefix that still matches
+            positionInPattern = failureTable[positionInPattern - 1];
+        }
+        if (c == pattern.charAt(positionInPattern)) {
+            positionInPattern++;
+        }
+        position++;
+        if (positionInPattern == pattern.length()) {
+            // Whole pattern matched
+            occurrences++;
+            listener.onMatch(position - pattern.length());
+            positionInPattern = failureTable[positionInPattern - 1];
+        }
+    }
+}
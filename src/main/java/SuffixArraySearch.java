@@ -0,0 +1,260 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Index based pattern searching for static texts that are queried many times. <br>
+ * The suffix array lists the starts of all suffixes of the text in lexicographic order, so all occurrences of a
+ * pattern are one contiguous range of it. The range is found with two binary searches, independent of the
+ * length of the text. While comparing, the prefix the pattern shares with both bounds of the search is skipped,
+ * which avoids most of the m comparisons per step without storing an LCP array.
+ * Counts overlapping occurrences, like NaiveSearch.
+ * <p>
+ * The array is built once by prefix doubling with radix sort, which needs 16 bytes per char at the peak.
+ * Afterwards it needs 4 bytes per char besides the text, see {@link #memoryFootprint()}.
+ * FmIndexSearch is the compact alternative.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; number of occurrences = z;</li>
+ *  <li>preparation effort = O(n log n)</li>
+ *  <li>counting: bc = O(m + log n) ; wc = O(m log n)</li>
+ *  <li>positions: additionally O(z log z)</li>
+ * </ul>
+ */
+public class SuffixArraySearch implements TextSearcher {
+    private final String text;
+    private final int[] suffixArray;
+
+    public SuffixArraySearch(String text) {
+        this.text = text;
+        this.suffixArray = buildSuffixArray(text);
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        if (pattern.isEmpty()) {
+            // Like NaiveSearch, the empty pattern also occurs behind the last char, which starts no suffix
+            return text.length() + 1;
+        }
+        int lowerBound = lowerBound(pattern);
+        return upperBound(pattern, lowerBound) - lowerBound;
+    }
+
+    /**
+     * Overlapping occurrences are the size of the range in the suffix array, non-overlapping ones have to be
+     * picked from the sorted positions.
+     */
+    @Override
+    public int occurences(String pattern, Overlap overlap) {
+        if (overlap == Overlap.overlapping) {
+            return occurences(pattern);
+        }
+        return TextSearcher.super.occurences(pattern, overlap);
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        if (pattern.isEmpty()) {
+            return fromIndex <= text.length() ? Math.max(0, fromIndex) : -1;
+        }
+        int lowerBound = lowerBound(pattern);
+        int upperBound = upperBound(pattern, lowerBound);
+        int first = -1;
+        for (int i = lowerBound; i < upperBound; i++) {
+            if (suffixArray[i] >= fromIndex && (first == -1 || suffixArray[i] < first)) {
+                first = suffixArray[i];
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Sorts the positions of the occurrences once, every call is then a binary search.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        int[] positions = positions(pattern);
+        return fromIndex -> {
+            int i = Arrays.binarySearch(positions, Math.max(0, fromIndex));
+            i = i >= 0 ? i : -i - 1;
+            return i < positions.length ? positions[i] : -1;
+        };
+    }
+
+    /**
+     * @param pattern
+     * @return starts of all occurrences in ascending order
+     */
+    public int[] positions(String pattern) {
+        if (pattern.isEmpty()) {
+            return IntStream.rangeClosed(0, text.length()).toArray();
+        }
+        int lowerBound = lowerBound(pattern);
+        int[] positions = Arrays.copyOfRange(suffixArray, lowerBound, upperBound(pattern, lowerBound));
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * @return approximate number of bytes used by the text and the suffix array
+     */
+    public long memoryFootprint() {
+        return 2L * text.length() + 4L * suffixArray.length;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return first rank whose suffix is not smaller than the pattern
+     */
+    private int lowerBound(String pattern) {
+        int low = 0;
+        int high = suffixArray.length;
+        // Length of the prefix the pattern shares with the suffixes at low - 1 and high
+        int lcpLow = 0;
+        int lcpHigh = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int common = Math.min(lcpLow, lcpHigh);
+            common = commonPrefix(pattern, suffixArray[middle], common);
+            if (common == pattern.length() || isSmaller(pattern, suffixArray[middle], common)) {
+                high = middle;
+                lcpHigh = common;
+            }
+            else {
+                low = middle + 1;
+                lcpLow = common;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return first rank from lowerBound on whose suffix doesn't start with the pattern
+     */
+    private int upperBound(String pattern, int lowerBound) {
+        int low = lowerBound;
+        int high = suffixArray.length;
+        int lcpLow = 0;
+        int lcpHigh = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int common = commonPrefix(pattern, suffixArray[middle], Math.min(lcpLow, lcpHigh));
+            if (common == pattern.length()) {
+                low = middle + 1;
+                lcpLow = common;
+            }
+            else {
+                high = middle;
+                lcpHigh = common;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param known length of the prefix that is already known to be equal
+     * @return length of the common prefix of the pattern and the suffix
+     */
+    private int commonPrefix(String pattern, int suffix, int known) {
+        int common = known;
+        while (common < pattern.length() && suffix + common < text.length()
+                && text.charAt(suffix + common) == pattern.charAt(common)) {
+            common++;
+        }
+        return common;
+    }
+
+    /**
+     * @param common length of the common prefix, smaller than the pattern length
+     * @return true if the pattern is smaller than the suffix
+     */
+    private boolean isSmaller(String pattern, int suffix, int common) {
+        return suffix + common < text.length() && pattern.charAt(common) < text.charAt(suffix + common);
+    }
+
+    /**
+     * Sorts the suffixes by prefix doubling: After the round with length k the suffixes are sorted by their first
+     * 2k chars. Every round sorts by the pair (rank of the first k chars, rank of the next k chars) with a stable
+     * counting sort. A suffix that is a prefix of another one is the smaller one.
+     * Besides the result it needs three int arrays of the text length, i.e. 16 bytes per char at the peak.
+     * @param text
+     * @return starts of the suffixes in lexicographic order
+     */
+    static int[] buildSuffixArray(CharSequence text) {
+        int n = text.length();
+        int[] suffixArray = new int[n];
+        int[] rank = new int[n];
+        int[] secondOrder = new int[n];
+        int[] count = new int[Math.max(Character.MAX_VALUE + 1, n) + 1];
+
+        for (int i = 0; i < n; i++) {
+            rank[i] = text.charAt(i);
+        }
+        for (int i = 0; i < n; i++) {
+            secondOrder[i] = i;
+        }
+        // The chars are the ranks of the first round
+        int numberOfRanks = Character.MAX_VALUE + 1;
+        countingSort(secondOrder, rank, suffixArray, count, numberOfRanks);
+
+        for (int length = 1; ; length <<= 1) {
+            // Order by the second half: Suffixes without one first, then in the order of the previous round
+            int next = 0;
+            for (int i = n - length; i < n; i++) {
+                if (i >= 0) {
+                    secondOrder[next++] = i;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (suffixArray[i] >= length) {
+                    secondOrder[next++] = suffixArray[i] - length;
+                }
+            }
+            countingSort(secondOrder, rank, suffixArray, count, numberOfRanks);
+
+            // The order by the second half isn't needed anymore, it takes the new ranks
+            int[] newRank = secondOrder;
+            if (n > 0) {
+                newRank[suffixArray[0]] = 0;
+            }
+            for (int i = 1; i < n; i++) {
+                int previous = suffixArray[i - 1];
+                int current = suffixArray[i];
+                boolean equal = rank[previous] == rank[current]
+                        && rankAt(rank, previous + length) == rankAt(rank, current + length);
+                newRank[current] = newRank[previous] + (equal ? 0 : 1);
+            }
+            secondOrder = rank;
+            rank = newRank;
+            numberOfRanks = n;
+            if (n == 0 || rank[suffixArray[n - 1]] == n - 1 || length >= n) {
+                return suffixArray;
+            }
+        }
+    }
+
+    /**
+     * Stable counting sort of the order by the ranks.
+     */
+    private static void countingSort(int[] order, int[] rank, int[] sorted, int[] count, int numberOfRanks) {
+        Arrays.fill(count, 0, numberOfRanks + 1, 0);
+        for (int position : order) {
+            count[rank[position] + 1]++;
+        }
+        for (int i = 1; i <= numberOfRanks; i++) {
+            count[i] += count[i - 1];
+        }
+        for (int position : order) {
+            sorted[count[rank[position]]++] = position;
+        }
+    }
+
+    private static int rankAt(int[] rank, int position) {
+        return position < rank.length ? rank[position] : -1;
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Sunday (quick search) variant of the Boyer-Moore algorithm. <br>
+ * After a mismatch it looks at the text char directly behind the current window. That char is part of the next
+ * window in any case, so the shift is one larger than the bad character shift of BoyerMooreSearch: A char that doesn't
+ * occur in the pattern moves the pattern by m + 1.
+ * Like BoyerMooreSearch it counts overlapping occurrences.
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; alphabet length = ∑;</li>
+ *  Method occurrences:
+ *  <li>preparation effort = O(∑ + m)</li>
+ *  <li>bc = O(n / (m + 1)) ; wc = O(n * m) ; ac = O(n / m) </li>
+ * </ul>
+ */
+public class SundaySearch extends BoyerMooreSearch {
+
+    public SundaySearch(String text, Alphabet alphabetType) {
+        super(text, alphabetType);
+    }
+
+    /**
+     * @param text
+     * @param alphabetType
+     * @param ignoreCase true to find the patterns in any case of their letters
+     */
+    public SundaySearch(String text, Alphabet alphabetType, boolean ignoreCase) {
+        super(text, alphabetType, ignoreCase);
+    }
+
+    @Override
+    protected int indexOf(CompiledPattern compiledPattern, int fromIndex, int toIndex, SearchProbe probe) {
+        checkAlphabet(compiledPattern);
+        String text = getText();
+        String pattern = compiledPattern.getSearchedPattern();
+        int patternLength = pattern.length();
+
+        int lastWindowStart = Math.min(text.length() - patternLength, toIndex - 1);
+
+        int windowStart = Math.max(0, fromIndex);
+        while (windowStart <= lastWindowStart) {
+            if (matches(text, compiledPattern, windowStart, probe)) {
+                if (probe != null) {
+                    probe.onMatch(windowStart);
+                }
+                return windowStart;
+            }
+            if (windowStart + patternLength < text.length()) {
+                // Char behind the window decides the shift
+                int shift = compiledPattern.shift(text.charAt(windowStart + patternLength)) + 1;
+                if (probe != null && windowStart + shift <= lastWindowStart) {
+                    probe.onShift(windowStart, shift);
+                }
+                windowStart += shift;
+            }
+            else {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(String text, CompiledPattern compiledPattern, int windowStart, SearchProbe probe) {
+        String pattern = compiledPattern.getSearchedPattern();
+        for (int counterInPattern = 0; counterInPattern < pattern.length(); counterInPattern++) {
+            boolean match = compiledPattern.fold(text.charAt(windowStart + counterInPattern)) == pattern.charAt(counterInPattern);
+            if (probe != null) {
+                probe.onComparison(windowStart + counterInPattern, counterInPattern, match);
+            }
+            if (!match) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
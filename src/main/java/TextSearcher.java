@@ -1,3 +1,12 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * Implementing a strategy pattern for text searching / pattern matching.
  * <ul>
@@ -6,8 +15,162 @@
  *  <li>Advanced naive search - Using only the counterInText (V1 )</li>
  *  <li>Advanced naive search - Similar to the naive search (V2) </li>
  *  <li>Boyer Moore Algorithm </li>
+ *  <li>Boyer Moore Algorithm with good suffix rule </li>
+ *  <li>Horspool Algorithm </li>
+ *  <li>Sunday Algorithm (quick search) </li>
+ *  <li>Aho Corasick Algorithm - Searches many patterns in one pass </li>
+ *  <li>Rabin Karp Algorithm - Rolling hash for very many patterns of the same length </li>
+ *  <li>Vectorized search - Filters candidates with SIMD instructions </li>
+ *  <li>Suffix array and FM-index - Index the text once for many queries </li>
+ *  <li>Packed text search - Boyer Moore on a bit-packed text </li>
+ *  <li>Shift-Or Algorithm - Bit-parallel state in a long </li>
+ *  <li>Two-Way Algorithm - Linear in the worst case with constant extra space </li>
+ *  <li>Knuth-Morris-Pratt Algorithm - Single pointer like V1, for any pattern </li>
+ *  <li>Approximate search - Up to k errors with Myers' bit-vector algorithm, reports end positions </li>
+ *  <li>Wildcard search - Wildcards, character classes and repetition compiled to a DFA </li>
+ *  <li>Adaptive search - Chooses one of the engines per query </li>
+ *  <li>Caching search - Caches the counts of another engine </li>
+ *  <li>Search service - Answers batches of concurrent queries in one pass </li>
+ *  <li>Append-only search - Standing queries updated incrementally as text is appended </li>
  * </ul>
+ * Besides counting, the positions of the occurrences can be reported. The default methods are all built on
+ * {@link #matcher(String)}, so an implementation only needs indexOf and may prepare the pattern once per query
+ * by overriding matcher.
  */
 public interface TextSearcher {
+    /**
+     * Whether an occurrence may start inside the previous one. Searching "ABA" in "ABABA" finds two
+     * overlapping occurrences but only one non-overlapping occurrence.
+     */
+    enum Overlap {overlapping, nonOverlapping}
+
+    /**
+     * Counts the occurrences with the semantics of the algorithm. NaiveSearch and BoyerMooreSearch count
+     * overlapping occurrences, the advanced naive searches continue behind an occurrence.
+     * Use {@link #occurences(String, Overlap)} to choose explicitly.
+     * @param pattern
+     * @return number of occurrences
+     */
     int occurences(String pattern);
+
+    /**
+     * @param pattern
+     * @param fromIndex first possible start of an occurrence
+     * @return start of the first occurrence at or after fromIndex, -1 if there is none
+     */
+    int indexOf(String pattern, int fromIndex);
+
+    /**
+     * Prepares the pattern for repeated calls of indexOf, e.g. compiles it only once.
+     * @param pattern
+     * @return function mapping fromIndex to the start of the first occurrence at or after it, -1 if there is none
+     */
+    default IntUnaryOperator matcher(String pattern) {
+        return fromIndex -> indexOf(pattern, fromIndex);
+    }
+
+    default int occurences(String pattern, Overlap overlap) {
+        return countAtMost(pattern, overlap, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calls the action with the start of every occurrence in ascending order, without allocating per occurrence.
+     * @param pattern
+     * @param overlap
+     * @param action
+     */
+    default void forEachMatch(String pattern, Overlap overlap, IntConsumer action) {
+        IntUnaryOperator matcher = matcher(pattern);
+        int step = step(pattern, overlap);
+        for (int position = matcher.applyAsInt(0); position != -1; position = matcher.applyAsInt(position + step)) {
+            action.accept(position);
+        }
+    }
+
+    /**
+     * Lazily iterates over the starts of the occurrences. The next occurrence is only searched when it is requested.
+     * @param pattern
+     * @param overlap
+     * @return iterator over the starts in ascending order
+     */
+    default PrimitiveIterator.OfInt matches(String pattern, Overlap overlap) {
+        IntUnaryOperator matcher = matcher(pattern);
+        int step = step(pattern, overlap);
+        return new PrimitiveIterator.OfInt() {
+            // -2 -> Not searched yet
+            private int next = -2;
+            private int fromIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (next == -2) {
+                    next = matcher.applyAsInt(fromIndex);
+                }
+                return next != -1;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int current = next;
+                fromIndex = current + step;
+                next = -2;
+                return current;
+            }
+        };
+    }
+
+    /**
+     * @param pattern
+     * @param overlap
+     * @return lazy stream of the starts of the occurrences in ascending order
+     */
+    default IntStream matchStream(String pattern, Overlap overlap) {
+        int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(matches(pattern, overlap), characteristics), false);
+    }
+
+    /**
+     * Stops at the first occurrence.
+     */
+    default boolean contains(String pattern) {
+        return indexOf(pattern, 0) != -1;
+    }
+
+    /**
+     * Stops at the first occurrence.
+     * @return start of the first occurrence, -1 if there is none
+     */
+    default int firstIndex(String pattern) {
+        return indexOf(pattern, 0);
+    }
+
+    /**
+     * Stops as soon as limit occurrences are found.
+     * @param pattern
+     * @param overlap
+     * @param limit maximal number of occurrences to count
+     * @return number of occurrences, at most limit
+     */
+    default int countAtMost(String pattern, Overlap overlap, int limit) {
+        IntUnaryOperator matcher = matcher(pattern);
+        int step = step(pattern, overlap);
+        int occurrences = 0;
+        int position = limit > 0 ? matcher.applyAsInt(0) : -1;
+        while (position != -1) {
+            occurrences++;
+            // Don't search further once the limit is reached
+            position = occurrences < limit ? matcher.applyAsInt(position + step) : -1;
+        }
+        return occurrences;
+    }
+
+    /**
+     * @return distance from the start of an occurrence to the first possible start of the next one
+     */
+    private static int step(String pattern, Overlap overlap) {
+        return overlap == Overlap.overlapping ? 1 : Math.max(1, pattern.length());
+    }
 }
@@ -0,0 +1,215 @@
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Two-Way pattern searching algorithm (Crochemore and Perrin), used by memmem of glibc. <br>
+ * The pattern is split at a critical factorization into a left part u and a right part v. Each window compares v
+ * from left to right first, a mismatch shifts the window by the number of matched chars of v plus one. Only if v
+ * matched, u is compared from right to left, and a mismatch then shifts the window by the period of the pattern.
+ * The critical factorization guarantees that no occurrence is skipped.
+ * <p>
+ * For periodic patterns, e.g. "abab", the chars of u known to match after a shift by the period are remembered,
+ * so no text char is compared more than twice. Thus the search is linear in the worst case, also on
+ * adversarial inputs like the text "aaaa...a" with the pattern "baaa" or "aaab", where the naive and the Boyer-Moore
+ * searches need n * m comparisons. Besides the factorization only a few ints are kept, no tables.
+ * Counts overlapping occurrences, like NaiveSearch. Works for any chars.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m;</li>
+ *  <li>preparation effort = O(m), extra space O(1)</li>
+ *  <li>bc = O(n / m) ; wc = O(n) ; ac = O(n)</li>
+ * </ul>
+ */
+public class TwoWaySearch implements TextSearcher {
+    private final String text;
+
+    /**
+     * Critical factorization of a pattern. Immutable, reusable for other texts and threads.
+     */
+    public static final class Factorization {
+        private final String pattern;
+        // Start of the right part v
+        private final int criticalPosition;
+        private final int period;
+        // True if the pattern has the period, i.e. u is a suffix of the first period chars of v
+        private final boolean periodic;
+
+        private Factorization(String pattern) {
+            this.pattern = pattern;
+            int[] forward = maximalSuffix(pattern, false);
+            int[] reverse = maximalSuffix(pattern, true);
+            // The later of both maximal suffixes is a critical factorization
+            int[] critical = forward[0] > reverse[0] ? forward : reverse;
+            this.criticalPosition = critical[0];
+            this.periodic = pattern.regionMatches(0, pattern, critical[1], criticalPosition);
+            // Without the period, occurrences are at least max(|u|, |v|) + 1 chars apart
+            this.period = periodic ? critical[1] : Math.max(criticalPosition, pattern.length() - criticalPosition) + 1;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public int getCriticalPosition() {
+            return criticalPosition;
+        }
+
+        /**
+         * @return period of the pattern if it is periodic, otherwise a lower bound of the period
+         */
+        public int getPeriod() {
+            return period;
+        }
+
+        public boolean isPeriodic() {
+            return periodic;
+        }
+
+        /**
+         * Computes the lexicographically maximal suffix by Duval's algorithm.
+         * @param reverseOrder true to compare the chars in reverse order
+         * @return start of the maximal suffix and its period
+         */
+        private static int[] maximalSuffix(String pattern, boolean reverseOrder) {
+            int maxSuffix = -1;
+            int j = 0;
+            int k = 1;
+            int period = 1;
+            while (j + k < pattern.length()) {
+                char a = pattern.charAt(j + k);
+                char b = pattern.charAt(maxSuffix + k);
+                if (reverseOrder ? a > b : a < b) {
+                    // The suffix at j + k is smaller -> Period grows to the whole compared part
+                    j += k;
+                    k = 1;
+                    period = j - maxSuffix;
+                }
+                else if (a == b) {
+                    if (k != period) {
+                        k++;
+                    }
+                    else {
+                        j += period;
+                        k = 1;
+                    }
+                }
+                else {
+                    // Larger suffix found
+                    maxSuffix = j++;
+                    k = 1;
+                    period = 1;
+                }
+            }
+            return new int[] {maxSuffix + 1, period};
+        }
+    }
+
+    public TwoWaySearch(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @param pattern
+     * @return critical factorization of the pattern
+     */
+    public static Factorization compile(String pattern) {
+        return new Factorization(pattern);
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        if (pattern.isEmpty()) {
+            return occurences(pattern, Overlap.overlapping);
+        }
+        return occurences(compile(pattern));
+    }
+
+    /**
+     * Counts overlapping occurrences in a single pass. The memory of a periodic pattern is kept across occurrences.
+     * @param factorization
+     * @return number of occurrences
+     */
+    public int occurences(Factorization factorization) {
+        // After an occurrence of a periodic pattern, the first m - p chars of the next window are known to match
+        int memory = factorization.periodic ? factorization.pattern.length() - factorization.period : 0;
+        int occurrences = 0;
+        for (int position = search(factorization, 0, 0); position != -1;
+             position = search(factorization, position + factorization.period, memory)) {
+            occurrences++;
+        }
+        return occurrences;
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return matcher(pattern).applyAsInt(fromIndex);
+    }
+
+    /**
+     * Factorizes the pattern once for all calls.
+     */
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        if (pattern.isEmpty()) {
+            // Same as NaiveSearch: The empty pattern occurs at every position
+            return fromIndex -> Math.max(0, fromIndex) <= text.length() ? Math.max(0, fromIndex) : -1;
+        }
+        Factorization factorization = compile(pattern);
+        return fromIndex -> indexOf(factorization, fromIndex);
+    }
+
+    /**
+     * @param factorization
+     * @param fromIndex first possible start of an occurrence
+     * @return start of the first occurrence at or after fromIndex, -1 if there is none
+     */
+    public int indexOf(Factorization factorization, int fromIndex) {
+        return search(factorization, Math.max(0, fromIndex), 0);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @param windowStart first window
+     * @param memory number of chars at the start of the window known to match
+     * @return start of the first occurrence, -1 if there is none
+     */
+    private int search(Factorization factorization, int windowStart, int memory) {
+        String pattern = factorization.pattern;
+        int patternLength = pattern.length();
+        int criticalPosition = factorization.criticalPosition;
+        int period = factorization.period;
+        boolean periodic = factorization.periodic;
+        int lastWindowStart = text.length() - patternLength;
+
+        while (windowStart <= lastWindowStart) {
+            // Right part from left to right, skipping the chars known to match
+            int counterInPattern = Math.max(criticalPosition, memory);
+            while (counterInPattern < patternLength && pattern.charAt(counterInPattern) == text.charAt(windowStart + counterInPattern)) {
+                counterInPattern++;
+            }
+            if (counterInPattern < patternLength) {
+                // Mismatch in v -> Shift behind the matched chars of v
+                windowStart += counterInPattern - criticalPosition + 1;
+                memory = 0;
+                continue;
+            }
+            // Left part from right to left, down to the chars known to match
+            counterInPattern = criticalPosition - 1;
+            while (counterInPattern >= memory && pattern.charAt(counterInPattern) == text.charAt(windowStart + counterInPattern)) {
+                counterInPattern--;
+            }
+            if (counterInPattern < memory) {
+                // Whole pattern matched
+                return windowStart;
+            }
+            windowStart += period;
+            // After a shift by the period the first m - p chars match again
+            memory = periodic ? patternLength - period : 0;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,167 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Pattern searching algorithm filtering candidates with SIMD instructions (Vector API). <br>
+ * Instead of comparing the whole pattern at every position, it compares the first and the last char of the pattern
+ * with as many text positions at once as a vector register holds. Only positions where both chars match are compared
+ * completely. This works best for short patterns, where Boyer-Moore can hardly skip anything.
+ * The results are the same as with NaiveSearch, overlapping occurrences included.
+ * <p>
+ * Texts consisting of Latin-1 chars are stored as bytes (32 or 64 positions per instruction, depending on the CPU),
+ * all other texts as chars (16 or 32 positions). Positions behind the last full vector are compared one by one.
+ * Needs {@code --add-modules jdk.incubator.vector} at compile and run time.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; pattern length = m; vector length = v;</li>
+ *  <li>bc = O(n / v) ; wc O(n * m) ; ac O(n / v) </li>
+ * </ul>
+ */
+public class VectorizedSearch implements TextSearcher {
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+
+    private final String text;
+    // Either the Latin-1 bytes or the chars of the text, the other one is null
+    private final byte[] latin1;
+    private final char[] chars;
+
+    public VectorizedSearch(String text) {
+        this.text = text;
+        if (isLatin1(text)) {
+            this.latin1 = new byte[text.length()];
+            for (int i = 0; i < text.length(); i++) {
+                latin1[i] = (byte) text.charAt(i);
+            }
+            this.chars = null;
+        }
+        else {
+            this.latin1 = null;
+            this.chars = text.toCharArray();
+        }
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        return occurences(pattern, Overlap.overlapping);
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        fromIndex = Math.max(0, fromIndex);
+        if (pattern.isEmpty()) {
+            // Same as NaiveSearch: The empty pattern occurs at every position
+            return fromIndex <= text.length() ? fromIndex : -1;
+        }
+        if (pattern.length() > text.length()) {
+            return -1;
+        }
+        if (latin1 != null) {
+            return isLatin1(pattern) ? indexOfLatin1(pattern, fromIndex) : -1;
+        }
+        return indexOfChars(pattern, fromIndex);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return number of text positions compared by one vector instruction
+     */
+    public int getPositionsPerInstruction() {
+        return latin1 != null ? BYTES.length() : SHORTS.length();
+    }
+
+    private int indexOfLatin1(String pattern, int fromIndex) {
+        int patternLength = pattern.length();
+        byte first = (byte) pattern.charAt(0);
+        byte last = (byte) pattern.charAt(patternLength - 1);
+        int lastStart = latin1.length - patternLength;
+
+        int counterInText = fromIndex;
+        // The vector of the last chars has to fit into the text too
+        int lastVectorStart = lastStart - BYTES.length() + 1;
+        if (counterInText <= lastVectorStart) {
+            ByteVector firstChars = ByteVector.broadcast(BYTES, first);
+            ByteVector lastChars = ByteVector.broadcast(BYTES, last);
+            for (; counterInText <= lastVectorStart; counterInText += BYTES.length()) {
+                long candidates = ByteVector.fromArray(BYTES, latin1, counterInText).eq(firstChars)
+                        .and(ByteVector.fromArray(BYTES, latin1, counterInText + patternLength - 1).eq(lastChars))
+                        .toLong();
+                // Every set bit is a position where the first and the last char match
+                while (candidates != 0) {
+                    int candidate = counterInText + Long.numberOfTrailingZeros(candidates);
+                    if (matchesInner(pattern, candidate)) {
+                        return candidate;
+                    }
+                    candidates &= candidates - 1;
+                }
+            }
+        }
+        for (; counterInText <= lastStart; counterInText++) {
+            if (latin1[counterInText] == first && latin1[counterInText + patternLength - 1] == last
+                    && matchesInner(pattern, counterInText)) {
+                return counterInText;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOfChars(String pattern, int fromIndex) {
+        int patternLength = pattern.length();
+        char first = pattern.charAt(0);
+        char last = pattern.charAt(patternLength - 1);
+        int lastStart = chars.length - patternLength;
+
+        int counterInText = fromIndex;
+        int lastVectorStart = lastStart - SHORTS.length() + 1;
+        if (counterInText <= lastVectorStart) {
+            ShortVector firstChars = ShortVector.broadcast(SHORTS, (short) first);
+            ShortVector lastChars = ShortVector.broadcast(SHORTS, (short) last);
+            for (; counterInText <= lastVectorStart; counterInText += SHORTS.length()) {
+                long candidates = ShortVector.fromCharArray(SHORTS, chars, counterInText).eq(firstChars)
+                        .and(ShortVector.fromCharArray(SHORTS, chars, counterInText + patternLength - 1).eq(lastChars))
+                        .toLong();
+                while (candidates != 0) {
+                    int candidate = counterInText + Long.numberOfTrailingZeros(candidates);
+                    if (matchesInner(pattern, candidate)) {
+                        return candidate;
+                    }
+                    candidates &= candidates - 1;
+                }
+            }
+        }
+        for (; counterInText <= lastStart; counterInText++) {
+            if (chars[counterInText] == first && chars[counterInText + patternLength - 1] == last
+                    && matchesInner(pattern, counterInText)) {
+                return counterInText;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the chars between the first and the last one, which already matched.
+     */
+    private boolean matchesInner(String pattern, int start) {
+        for (int counterInPattern = 1; counterInPattern < pattern.length() - 1; counterInPattern++) {
+            if (text.charAt(start + counterInPattern) != pattern.charAt(counterInPattern)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,416 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Pattern searching with wildcards, character classes and bounded repetition. <br>
+ * A pattern is compiled into a deterministic finite automaton (DFA) over the indices of the BoyerMooreSearch.Alphabet.
+ * The transitions are one dense int array with a row of ∑ entries per state, so every text char is one table lookup,
+ * without backtracking and without allocations while scanning.
+ * <ul>
+ *  Pattern language:
+ *  <li>c - the char c. Chars outside of the alphabet never match</li>
+ *  <li>? - any char of the alphabet</li>
+ *  <li>[abc], [a-z0-9] - one of the chars or ranges, [^...] - any char of the alphabet except them</li>
+ *  <li>x{n}, x{n,m} - the char, ? or class x repeated n times, or between n and m times</li>
+ *  <li>\c - the char c, for the special chars ? [ ] { } \ and inside of classes - ^</li>
+ * </ul>
+ * An occurrence is counted once per start, like NaiveSearch counts overlapping occurrences. If the pattern has
+ * variable length, several occurrences can start at the same position, e.g. "AB" and "ABB" for "AB{1,2}", but they
+ * count once. The starts are found by a second DFA of the reversed pattern, which scans the text backwards.
+ * <p>
+ * The unicode alphabet is not supported, because its chars can share an index.
+ * </p>
+ *
+ * <ul>
+ *  Time complexity:
+ *  <li>text length = n; length of the expanded pattern = m; alphabet length = ∑; number of DFA states = s;</li>
+ *  <li>To validate the text = O(n)</li>
+ *  <li>preparation effort = O(s * ∑ * m), s is at most 2^m but usually close to m</li>
+ *  <li>bc, wc, ac = O(n)</li>
+ * </ul>
+ */
+public class WildcardSearch implements TextSearcher {
+    /**
+     * Upper bound of the states of a DFA. The subset construction can produce exponentially many states.
+     */
+    public static final int MAX_STATES = 1 << 16;
+    /**
+     * Upper bound of the length of the expanded pattern, i.e. the sum of the maximal repetitions. Every repetition is
+     * expanded into one element per copy and the DFA is built in O(s * ∑ * m), so the bound is checked while parsing.
+     */
+    public static final int MAX_LENGTH = 1 << 8;
+
+    private final String text;
+    private final BoyerMooreSearch.Alphabet alphabetType;
+
+    /**
+     * Immutable compiled pattern. Reusable for other texts of the same alphabet and other threads.
+     */
+    public static final class CompiledPattern {
+        private final String pattern;
+        private final BoyerMooreSearch.Alphabet alphabetType;
+        private final int maxLength;
+        // Finds the ends of the occurrences scanning forwards
+        private final Dfa forward;
+        // Finds the starts of the occurrences scanning backwards
+        private final Dfa backward;
+
+        private CompiledPattern(String pattern, BoyerMooreSearch.Alphabet alphabetType) {
+            this.pattern = pattern;
+            this.alphabetType = alphabetType;
+            List<Element> elements = expand(parse(pattern, alphabetType));
+            int minLength = 0;
+            for (Element element : elements) {
+                minLength += element.optional ? 0 : 1;
+            }
+            if (minLength == 0) {
+                throw new IllegalArgumentException("The pattern " + pattern + " matches the empty string.");
+            }
+            this.maxLength = elements.size();
+            this.forward = new Dfa(elements, alphabetType.size());
+            this.backward = new Dfa(elements.reversed(), alphabetType.size());
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public BoyerMooreSearch.Alphabet getAlphabetType() {
+            return alphabetType;
+        }
+
+        /**
+         * @return length of the longest possible occurrence
+         */
+        public int maxLength() {
+            return maxLength;
+        }
+
+        public int numberOfStates() {
+            return forward.accepting.length;
+        }
+    }
+
+    /**
+     * One char, ? or class of the pattern with its repetition.
+     * @param symbols alphabet indices the element matches
+     * @param optional true if the element may be skipped
+     */
+    private record Element(BitSet symbols, int min, int max, boolean optional) {
+    }
+
+    /**
+     * Unanchored DFA of a sequence of elements built by the subset construction. A state is the set of numbers of
+     * elements matched so far, the start state (no element matched) is part of every state.
+     */
+    private static final class Dfa {
+        private final int sizeOfAlphabet;
+        private final int[] transitions;
+        private final boolean[] accepting;
+
+        private Dfa(List<Element> elements, int sizeOfAlphabet) {
+            this.sizeOfAlphabet = sizeOfAlphabet;
+            int length = elements.size();
+            Map<BitSet, Integer> states = new HashMap<>();
+            List<BitSet> queue = new ArrayList<>();
+            int[] goTo = new int[16 * sizeOfAlphabet];
+
+            BitSet start = closure(new BitSet(), elements);
+            states.put(start, 0);
+            queue.add(start);
+            for (int state = 0; state < queue.size(); state++) {
+                BitSet matched = queue.get(state);
+                if (goTo.length < (state + 1) * sizeOfAlphabet) {
+                    goTo = Arrays.copyOf(goTo, goTo.length * 2);
+                }
+                for (int symbol = 0; symbol < sizeOfAlphabet; symbol++) {
+                    BitSet next = new BitSet(length + 1);
+                    for (int i = matched.nextSetBit(0); i >= 0 && i < length; i = matched.nextSetBit(i + 1)) {
+                        if (elements.get(i).symbols.get(symbol)) {
+                            next.set(i + 1);
+                        }
+                    }
+                    next = closure(next, elements);
+                    Integer nextState = states.get(next);
+                    if (nextState == null) {
+                        if (queue.size() == MAX_STATES) {
+                            throw new IllegalArgumentException("The pattern needs more than " + MAX_STATES + " states.");
+                        }
+                        nextState = queue.size();
+                        states.put(next, nextState);
+                        queue.add(next);
+                    }
+                    goTo[state * sizeOfAlphabet + symbol] = nextState;
+                }
+            }
+            this.transitions = Arrays.copyOf(goTo, queue.size() * sizeOfAlphabet);
+            this.accepting = new boolean[queue.size()];
+            for (int state = 0; state < queue.size(); state++) {
+                accepting[state] = queue.get(state).get(length);
+            }
+        }
+
+        /**
+         * Adds the start and skips optional elements.
+         */
+        private static BitSet closure(BitSet matched, List<Element> elements) {
+            matched.set(0);
+            for (int i = 0; i < elements.size(); i++) {
+                if (matched.get(i) && elements.get(i).optional) {
+                    matched.set(i + 1);
+                }
+            }
+            return matched;
+        }
+    }
+
+    public WildcardSearch(String text, BoyerMooreSearch.Alphabet alphabetType) {
+        if (alphabetType == null) {
+            throw new IllegalArgumentException("An alphabet needs to be chosen. Null is not valid.");
+        }
+        if (alphabetType.hasSharedIndices()) {
+            throw new IllegalArgumentException("The alphabet " + alphabetType + " is not supported, several chars share one index.");
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!alphabetType.contains(text.charAt(i))) {
+                throw new IllegalArgumentException("The text consists of characters that are not included in the alphabet!");
+            }
+        }
+        this.text = text;
+        this.alphabetType = alphabetType;
+    }
+
+    public CompiledPattern compile(String pattern) {
+        return compile(pattern, alphabetType);
+    }
+
+    /**
+     * @param pattern see the class documentation for the syntax
+     * @param alphabetType
+     * @return compiled pattern
+     * @throws IllegalArgumentException if the syntax is invalid or the pattern matches the empty string
+     */
+    public static CompiledPattern compile(String pattern, BoyerMooreSearch.Alphabet alphabetType) {
+        if (alphabetType.hasSharedIndices()) {
+            throw new IllegalArgumentException("The alphabet " + alphabetType + " is not supported, several chars share one index.");
+        }
+        return new CompiledPattern(pattern, alphabetType);
+    }
+
+    @Override
+    public int occurences(String pattern) {
+        return occurences(compile(pattern));
+    }
+
+    /**
+     * Scans the text once backwards, every position where the backward DFA accepts is a start.
+     * @param compiledPattern pattern compiled for the alphabet of this searcher
+     * @return number of starts of occurrences
+     */
+    public int occurences(CompiledPattern compiledPattern) {
+        checkAlphabet(compiledPattern);
+        Dfa backward = compiledPattern.backward;
+        int occurrences = 0;
+        int state = 0;
+        for (int counterInText = text.length() - 1; counterInText >= 0; counterInText--) {
+            state = backward.transitions[state * backward.sizeOfAlphabet + alphabetType.index(text.charAt(counterInText))];
+            if (backward.accepting[state]) {
+                occurrences++;
+            }
+        }
+        return occurrences;
+    }
+
+    @Override
+    public int indexOf(String pattern, int fromIndex) {
+        return indexOf(compile(pattern), fromIndex);
+    }
+
+    @Override
+    public IntUnaryOperator matcher(String pattern) {
+        CompiledPattern compiledPattern = compile(pattern);
+        return fromIndex -> indexOf(compiledPattern, fromIndex);
+    }
+
+    /**
+     * The forward DFA finds the first end of an occurrence starting at or after fromIndex. The first start can't be
+     * behind this end, and its occurrence ends at most maxLength - 1 chars behind it. From there the backward DFA
+     * scans back to fromIndex.
+     * @param compiledPattern pattern compiled for the alphabet of this searcher
+     * @param fromIndex first possible start of an occurrence
+     * @return first start at or after fromIndex, -1 if there is none
+     */
+    public int indexOf(CompiledPattern compiledPattern, int fromIndex) {
+        checkAlphabet(compiledPattern);
+        fromIndex = Math.max(0, fromIndex);
+        Dfa forward = compiledPattern.forward;
+        int end = -1;
+        int state = 0;
+        for (int counterInText = fromIndex; counterInText < text.length(); counterInText++) {
+            state = forward.transitions[state * forward.sizeOfAlphabet + alphabetType.index(text.charAt(counterInText))];
+            if (forward.accepting[state]) {
+                end = counterInText;
+                break;
+            }
+        }
+        if (end == -1) {
+            return -1;
+        }
+
+        Dfa backward = compiledPattern.backward;
+        int first = -1;
+        state = 0;
+        int lastEnd = (int) Math.min(text.length() - 1, (long) end + compiledPattern.maxLength - 1);
+        for (int counterInText = lastEnd; counterInText >= fromIndex; counterInText--) {
+            state = backward.transitions[state * backward.sizeOfAlphabet + alphabetType.index(text.charAt(counterInText))];
+            if (backward.accepting[state]) {
+                first = counterInText;
+            }
+        }
+        return first;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public BoyerMooreSearch.Alphabet getAlphabetType() {
+        return alphabetType;
+    }
+
+    private void checkAlphabet(CompiledPattern compiledPattern) {
+        if (compiledPattern.getAlphabetType() != alphabetType) {
+            throw new IllegalArgumentException("The pattern was compiled for the alphabet " + compiledPattern.getAlphabetType()
+                    + " but the text uses " + alphabetType + ".");
+        }
+    }
+
+    /**
+     * @return elements of the pattern with their repetitions
+     */
+    private static List<Element> parse(String pattern, BoyerMooreSearch.Alphabet alphabetType) {
+        List<Element> elements = new ArrayList<>();
+        long length = 0;
+        int position = 0;
+        while (position < pattern.length()) {
+            char c = pattern.charAt(position);
+            BitSet symbols = new BitSet(alphabetType.size());
+            switch (c) {
+                case '?' -> {
+                    symbols.set(0, alphabetType.size());
+                    position++;
+                }
+                case '[' -> position = parseClass(pattern, position + 1, alphabetType, symbols);
+                case '\\' -> {
+                    if (position + 1 == pattern.length()) {
+                        throw new IllegalArgumentException("The pattern " + pattern + " ends with an escape.");
+                    }
+                    addChar(pattern.charAt(position + 1), alphabetType, symbols);
+                    position += 2;
+                }
+                case ']', '{', '}' -> throw new IllegalArgumentException("Unexpected " + c + " at position " + position
+                        + " of the pattern " + pattern + ".");
+                default -> {
+                    addChar(c, alphabetType, symbols);
+                    position++;
+                }
+            }
+
+            int min = 1;
+            int max = 1;
+            if (position < pattern.length() && pattern.charAt(position) == '{') {
+                int close = pattern.indexOf('}', position);
+                if (close == -1) {
+                    throw new IllegalArgumentException("Unclosed { at position " + position + " of the pattern " + pattern + ".");
+                }
+                String[] bounds = pattern.substring(position + 1, close).split(",", -1);
+                try {
+                    min = Integer.parseInt(bounds[0].trim());
+                    max = bounds.length == 1 ? min : Integer.parseInt(bounds[1].trim());
+                }
+                catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid repetition at position " + position + " of the pattern " + pattern + ".", e);
+                }
+                if (bounds.length > 2 || min < 0 || max < min) {
+                    throw new IllegalArgumentException("Invalid repetition at position " + position + " of the pattern " + pattern + ".");
+                }
+                position = close + 1;
+            }
+            length += max;
+            if (length > MAX_LENGTH) {
+                throw new IllegalArgumentException("The pattern " + pattern + " is longer than " + MAX_LENGTH
+                        + " chars with its repetitions expanded.");
+            }
+            elements.add(new Element(symbols, min, max, false));
+        }
+        return elements;
+    }
+
+    /**
+     * @param position first position behind the [
+     * @return position behind the ]
+     */
+    private static int parseClass(String pattern, int position, BoyerMooreSearch.Alphabet alphabetType, BitSet symbols) {
+        boolean negated = position < pattern.length() && pattern.charAt(position) == '^';
+        if (negated) {
+            position++;
+        }
+        BitSet chars = new BitSet(alphabetType.size());
+        boolean empty = true;
+        while (position < pattern.length() && (pattern.charAt(position) != ']' || empty)) {
+            char from = pattern.charAt(position);
+            if (from == '\\' && position + 1 < pattern.length()) {
+                from = pattern.charAt(++position);
+            }
+            position++;
+            char to = from;
+            if (position + 1 < pattern.length() && pattern.charAt(position) == '-' && pattern.charAt(position + 1) != ']') {
+                to = pattern.charAt(position + 1);
+                if (to == '\\' && position + 2 < pattern.length()) {
+                    to = pattern.charAt(++position + 1);
+                }
+                position += 2;
+                if (to < from) {
+                    throw new IllegalArgumentException("Invalid range " + from + "-" + to + " in the pattern " + pattern + ".");
+                }
+            }
+            for (char c = from; c <= to && c >= from; c++) {
+                addChar(c, alphabetType, chars);
+            }
+            empty = false;
+        }
+        if (position == pattern.length()) {
+            throw new IllegalArgumentException("Unclosed [ in the pattern " + pattern + ".");
+        }
+        if (negated) {
+            chars.flip(0, alphabetType.size());
+        }
+        symbols.or(chars);
+        return position + 1;
+    }
+
+    private static void addChar(char c, BoyerMooreSearch.Alphabet alphabetType, BitSet symbols) {
+        int index = alphabetType.index(c);
+        if (index >= 0) {
+            symbols.set(index);
+        }
+    }
+
+    /**
+     * Replaces every repeated element by min mandatory and max - min optional copies.
+     */
+    private static List<Element> expand(List<Element> elements) {
+        List<Element> expanded = new ArrayList<>();
+        for (Element element : elements) {
+            for (int i = 0; i < element.max; i++) {
+                expanded.add(new Element(element.symbols, 1, 1, i >= element.min));
+            }
+        }
+        return expanded;
+    }
+}
@@ -1,5 +1,6 @@
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -100,4 +101,51 @@ public class AlphabetTest {
             System.out.print(textSearcher.getIndex(ascii.charAt(i)) + " ");
         }
     }
+
+    @Test
+    public void test_Index_Table() {
+        BoyerMooreSearch.Alphabet alphabet = BoyerMooreSearch.Alphabet.numbersAndAllLetters;
+        assertEquals(0, alphabet.index('0'));
+        assertEquals(10, alphabet.index('A'));
+        assertEquals(36, alphabet.index('a'));
+        assertEquals(62, alphabet.index(' '));
+        assertEquals(63, alphabet.index(','));
+        assertEquals(-1, alphabet.index('*'));
+        assertEquals(-1, alphabet.index('\u00e4'));
+        assertTrue(alphabet.contains('z'));
+        assertFalse(alphabet.contains('.'));
+
+        alphabet = BoyerMooreSearch.Alphabet.lowerCaseLetters;
+        assertEquals(25, alphabet.index('z'));
+        assertEquals(26, alphabet.index(' '));
+        assertEquals(-1, alphabet.index('A'));
+
+        alphabet = BoyerMooreSearch.Alphabet.ascii;
+        assertEquals('*', alphabet.index('*'));
+        assertEquals(-1, alphabet.index('\u00e4'));
+    }
+
+    @Test
+    public void test_Unicode() {
+        BoyerMooreSearch.Alphabet alphabet = BoyerMooreSearch.Alphabet.unicode;
+        // Latin-1 chars have their own index, the others share buckets
+        assertEquals(0xe4, alphabet.index('\u00e4'));
+        assertTrue(alphabet.contains('\u6771'));
+        assertEquals(alphabet.index('\u6771'), alphabet.index('\u0117'));
+
+        String text = "Gr\u00fc\u00dfe aus \u6771\u4eac und \u0117\u4eac, \u6771\u4eac\u30bf\u30ef\u30fc \ud83d\ude00!";
+        NaiveSearch naive = new NaiveSearch(text);
+        TextSearcher[] searchers = {
+                new BoyerMooreSearch(text, alphabet),
+                new BoyerMooreGoodSuffixSearch(text, alphabet),
+                new HorspoolSearch(text, alphabet),
+                new SundaySearch(text, alphabet),
+                new AhoCorasickSearch(text, alphabet)
+        };
+        for (String pattern : new String[]{"\u6771\u4eac", "\u0117\u4eac", "\u4eac", "\u00fc\u00df", "e aus", "\ud83d\ude00", "\u0117\u6771"}) {
+            for (TextSearcher searcher : searchers) {
+                assertEquals(naive.occurences(pattern), searcher.occurences(pattern), searcher.getClass() + " " + pattern);
+            }
+        }
+    }
 }
@@ -1,10 +1,40 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SearchTest {
     private TextSearcher textSorter;
 
-    public enum SortingAlgorithm {naive, advancedNaiveV1, advancedNaiveV2, boyerMoore};
+    public enum SortingAlgorithm {naive, advancedNaiveV1, advancedNaiveV2, boyerMoore, boyerMooreGoodSuffix, horspool, sunday, ahoCorasick, vectorized, suffixArray, fmIndex, packedText, adaptive, shiftOr, wildcard, caching, twoWay, kmp, rabinKarp};
 
     public void setup(SortingAlgorithm sortingAlgorithm) {
         String text = "ALGORITHMEN UND DADATENSTRUKTUREN";
@@ -13,6 +43,21 @@ class SearchTest {
             case advancedNaiveV1 -> textSorter = new AdvancedNaiveSearchV1(text);
             case advancedNaiveV2 -> textSorter = new AdvancedNaiveSearchV2(text);
             case boyerMoore -> textSorter = new BoyerMooreSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case boyerMooreGoodSuffix -> textSorter = new BoyerMooreGoodSuffixSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case horspool -> textSorter = new HorspoolSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case sunday -> textSorter = new SundaySearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case ahoCorasick -> textSorter = new AhoCorasickSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case vectorized -> textSorter = new VectorizedSearch(text);
+            case suffixArray -> textSorter = new SuffixArraySearch(text);
+            case fmIndex -> textSorter = new FmIndexSearch(text);
+            case packedText -> textSorter = new PackedTextSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case adaptive -> textSorter = new AdaptiveSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case shiftOr -> textSorter = new ShiftOrSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case wildcard -> textSorter = new WildcardSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+            case caching -> textSorter = new CachingSearch(new BoyerMooreSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters));
+            case twoWay -> textSorter = new TwoWaySearch(text);
+            case kmp -> textSorter = new KmpSearch(text);
+            case rabinKarp -> textSorter = new RabinKarpSearch(text);
         }
     }
 
@@ -109,4 +154,1135 @@ class SearchTest {
         int occurences3 = textSorter.occurences(pattern3);
         assertEquals(3, occurences3);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_BoyerMoore_Compiled_Pattern() {
+        BoyerMooreSearch.CompiledPattern pattern = BoyerMooreSearch.compile("DATEN", BoyerMooreSearch.Alphabet.upperCaseLetters);
+
+        // Repeated patterns come from the cache
+        assertSame(pattern, BoyerMooreSearch.compile("DATEN", BoyerMooreSearch.Alphabet.upperCaseLetters));
+
+        // Reusable for other texts
+        BoyerMooreSearch first = new BoyerMooreSearch("ALGORITHMEN UND DADATENSTRUKTUREN", BoyerMooreSearch.Alphabet.upperCaseLetters);
+        BoyerMooreSearch second = new BoyerMooreSearch("DATEN DATEN", BoyerMooreSearch.Alphabet.upperCaseLetters);
+        assertEquals(1, first.occurences(pattern));
+        assertEquals(2, second.occurences(pattern));
+
+        // And for several threads at once
+        assertTrue(IntStream.range(0, 1000).parallel().allMatch(i -> first.occurences(pattern) == 1));
+
+        // Compiled for another alphabet -> Error
+        BoyerMooreSearch numbers = new BoyerMooreSearch("123", BoyerMooreSearch.Alphabet.onlyNumbers);
+        assertThrows(IllegalArgumentException.class, () -> numbers.occurences(pattern));
+    }
+
+    @Test
+    public void test_BoyerMoore_Good_Suffix_Search() {
+        setup(SortingAlgorithm.boyerMooreGoodSuffix);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Horspool_Search() {
+        setup(SortingAlgorithm.horspool);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Sunday_Search() {
+        setup(SortingAlgorithm.sunday);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_BoyerMoore_Variants_On_Repetitive_Text() {
+        String text = "1212121212 1211212 1212121 212, 121212121212";
+        BoyerMooreSearch.Alphabet alphabet = BoyerMooreSearch.Alphabet.onlyNumbers;
+        BoyerMooreSearch boyerMoore = new BoyerMooreSearch(text, alphabet);
+        TextSearcher[] variants = {
+                new BoyerMooreGoodSuffixSearch(text, alphabet),
+                new HorspoolSearch(text, alphabet),
+                new SundaySearch(text, alphabet)
+        };
+        for (String pattern : new String[]{"1212", "121", "2121212", "12 1", "1", "3", "121212121212"}) {
+            for (TextSearcher variant : variants) {
+                assertEquals(boyerMoore.occurences(pattern), variant.occurences(pattern), variant.getClass() + " " + pattern);
+            }
+        }
+    }
+
+    @Test
+    public void test_Aho_Corasick_Search() {
+        setup(SortingAlgorithm.ahoCorasick);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Aho_Corasick_Multiple_Patterns() {
+        String text = "ALGORITHMEN UND DADATENSTRUKTUREN";
+        List<String> patterns = List.of("DATEN", "T", "EN", "DA", "DADA", "EN", "XYZ");
+
+        // Known alphabet and alphabet derived from the patterns
+        for (AhoCorasickSearch searcher : new AhoCorasickSearch[]{
+                new AhoCorasickSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters), new AhoCorasickSearch(text)}) {
+            AhoCorasickSearch.Automaton automaton = searcher.compile(patterns);
+            assertArrayEquals(new int[]{1, 4, 3, 2, 1, 3, 0}, searcher.occurences(automaton));
+
+            List<String> found = new ArrayList<>();
+            searcher.forEachMatch(automaton, (patternIndex, position) -> {
+                assertTrue(text.startsWith(patterns.get(patternIndex), position));
+                if (patternIndex == 0 || patternIndex == 4) {
+                    found.add(patterns.get(patternIndex) + "@" + position);
+                }
+            });
+            assertEquals(List.of("DADA@16", "DATEN@18"), found);
+        }
+    }
+
+    @Test
+    public void test_Parallel_Search() {
+        String text = "1212121212 1211212 1212121 212, 121212121212";
+        BoyerMooreSearch.Alphabet alphabet = BoyerMooreSearch.Alphabet.onlyNumbers;
+        NaiveSearch naive = new NaiveSearch(text);
+        BoyerMooreSearch boyerMoore = new BoyerMooreSearch(text, alphabet);
+        SundaySearch sunday = new SundaySearch(text, alphabet);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Tiny chunks -> Many occurrences cross a chunk boundary
+        for (int chunkSize = 1; chunkSize <= 8; chunkSize++) {
+            TextSearcher[] parallel = {
+                    new ParallelSearch(naive, pool, chunkSize),
+                    new ParallelSearch(boyerMoore, pool, chunkSize),
+                    new ParallelSearch(sunday, pool, chunkSize)
+            };
+            for (String pattern : new String[]{"1212", "121", "2121212", "12 1", "1", "3", "121212121212"}) {
+                int expected = naive.occurences(pattern);
+                for (TextSearcher searcher : parallel) {
+                    assertEquals(expected, searcher.occurences(pattern), "chunk size " + chunkSize + " " + pattern);
+                }
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_Naive_Empty_Pattern() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        // The empty pattern occurs at every position, also behind the last char
+        for (String text : new String[]{"", "ABAB", "ALGORITHMEN UND DADATENSTRUKTUREN"}) {
+            NaiveSearch naive = new NaiveSearch(text);
+            assertEquals(text.length() + 1, naive.occurences(""), text);
+            assertEquals(text.length() + 1, new ParallelSearch(naive, pool, 1).occurences(""), text);
+            assertEquals(text.length() + 1, new KmpSearch(text).occurences(""), text);
+            assertEquals(text.length() + 1, new TwoWaySearch(text).occurences(""), text);
+            assertEquals(text.length() + 1, new SuffixArraySearch(text).occurences(""), text);
+            assertEquals(text.length() + 1, new FmIndexSearch(text).occurences(""), text);
+            assertEquals(text.length(), new SuffixArraySearch(text).indexOf("", text.length()), text);
+            assertEquals(text.length(), new FmIndexSearch(text).indexOf("", text.length()), text);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_Boyer_Moore_Empty_Pattern() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        BoyerMooreSearch.Alphabet alphabet = BoyerMooreSearch.Alphabet.upperCaseLetters;
+
+        // All variants share the empty pattern handling of BoyerMooreSearch
+        for (String text : new String[]{"", "ABAB", "ALGORITHMEN UND DADATENSTRUKTUREN"}) {
+            for (BoyerMooreSearch searcher : new BoyerMooreSearch[]{new BoyerMooreSearch(text, alphabet),
+                    new BoyerMooreGoodSuffixSearch(text, alphabet), new HorspoolSearch(text, alphabet),
+                    new SundaySearch(text, alphabet)}) {
+                assertEquals(text.length() + 1, searcher.occurences(""), text);
+                assertEquals(text.length() + 1, new ParallelSearch(searcher, pool, 1).occurences(""), text);
+                assertEquals(text.isEmpty() ? -1 : 1, searcher.indexOf("", 1), text);
+                assertEquals(text.length(), searcher.indexOf("", text.length()), text);
+                assertEquals(-1, searcher.indexOf("", text.length() + 1), text);
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_Mapped_File_Search(@TempDir Path directory) throws IOException {
+        String text = "ALGORITHMEN UND DADATENSTRUKTUREN";
+        Path file = Files.writeString(directory.resolve("text.txt"), text, StandardCharsets.US_ASCII);
+        BoyerMooreSearch boyerMoore = new BoyerMooreSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+
+        // One region and tiny regions -> Occurrences cross region boundaries
+        for (int regionSize : new int[]{MappedFileSearch.DEFAULT_REGION_SIZE, 4, 1}) {
+            MappedFileSearch searcher = new MappedFileSearch(file, BoyerMooreSearch.Alphabet.upperCaseLetters, regionSize);
+            assertEquals(text.length(), searcher.size());
+            for (String pattern : new String[]{"DATEN", "T", "EN", "DA", "UND D", "XYZ", ""}) {
+                assertEquals(boyerMoore.occurences(pattern), searcher.occurences(pattern), pattern);
+            }
+        }
+
+        // Invalid bytes -> Error
+        assertThrows(IllegalArgumentException.class,
+                () -> new MappedFileSearch(file, BoyerMooreSearch.Alphabet.onlyNumbers));
+        // Multi-byte chars can't be searched byte by byte -> Error
+        assertThrows(IllegalArgumentException.class,
+                () -> new MappedFileSearch(file, BoyerMooreSearch.Alphabet.unicode));
+    }
+
+    @Test
+    public void test_Streaming_Search() throws IOException {
+        String text = "1212121212 1211212 1212121 212, 121212121212";
+        for (String pattern : new String[]{"1212", "121", "2121212", "12 1", "1", "3"}) {
+            List<Long> expected = new ArrayList<>();
+            for (int i = text.indexOf(pattern); i != -1; i = text.indexOf(pattern, i + 1)) {
+                expected.add((long) i);
+            }
+
+            // Chunks of every size -> Occurrences are split over chunks
+            for (int chunkSize = 1; chunkSize <= 6; chunkSize++) {
+                List<Long> found = new ArrayList<>();
+                StreamingSearch searcher = new StreamingSearch(pattern, found::add);
+                for (int i = 0; i < text.length(); i += chunkSize) {
+                    if (i % 2 == 0) {
+                        searcher.feed(text.substring(i, Math.min(text.length(), i + chunkSize)));
+                    }
+                    else {
+                        searcher.feed(ByteBuffer.wrap(text.substring(i, Math.min(text.length(), i + chunkSize)).getBytes(StandardCharsets.ISO_8859_1)));
+                    }
+                }
+                assertEquals(expected, found, pattern + " chunk size " + chunkSize);
+            }
+
+            StreamingSearch searcher = new StreamingSearch(pattern);
+            searcher.feed(new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1)));
+            assertEquals(expected.size(), searcher.getOccurrences());
+            assertEquals(text.length(), searcher.getPosition());
+        }
+    }
+
+    @Test
+    public void test_Match_Positions() {
+        String text = "ABABABA ABA";
+        TextSearcher[] searchers = {
+                new NaiveSearch(text),
+                new BoyerMooreSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters),
+                new BoyerMooreGoodSuffixSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters),
+                new HorspoolSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters),
+                new SundaySearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters),
+                new AhoCorasickSearch(text)
+        };
+        for (TextSearcher searcher : searchers) {
+            // Callback
+            List<Integer> overlapping = new ArrayList<>();
+            searcher.forEachMatch("ABA", TextSearcher.Overlap.overlapping, overlapping::add);
+            assertEquals(List.of(0, 2, 4, 8), overlapping);
+
+            // Lazy iterator and stream
+            PrimitiveIterator.OfInt matches = searcher.matches("ABA", TextSearcher.Overlap.nonOverlapping);
+            assertEquals(0, matches.nextInt());
+            assertEquals(4, matches.nextInt());
+            assertEquals(8, matches.nextInt());
+            assertFalse(matches.hasNext());
+            assertArrayEquals(new int[]{0, 2, 4, 8}, searcher.matchStream("ABA", TextSearcher.Overlap.overlapping).toArray());
+
+            // Early exit
+            assertTrue(searcher.contains("BAB"));
+            assertFalse(searcher.contains("BB"));
+            assertEquals(1, searcher.firstIndex("BAB"));
+            assertEquals(-1, searcher.firstIndex("BB"));
+            assertEquals(2, searcher.countAtMost("ABA", TextSearcher.Overlap.overlapping, 2));
+            assertEquals(3, searcher.occurences("ABA", TextSearcher.Overlap.nonOverlapping));
+            assertEquals(4, searcher.occurences("ABA", TextSearcher.Overlap.overlapping));
+        }
+
+        // Advanced naive searches check the dependency
+        TextSearcher advancedNaive = new AdvancedNaiveSearchV1(text);
+        assertEquals(List.of(1, 3, 5, 9), advancedNaive.matchStream("BA", TextSearcher.Overlap.overlapping).boxed().toList());
+        assertThrows(IllegalArgumentException.class, () -> advancedNaive.firstIndex("ABA"));
+        assertEquals(7, new AdvancedNaiveSearchV2(text).indexOf(" AB", 0));
+    }
+
+    @Test
+    public void test_Vectorized_Search() {
+        setup(SortingAlgorithm.vectorized);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Vectorized_Search_Long_Texts() {
+        // Long enough for several vectors, Latin-1 and other chars
+        String latin1 = "1212121212 1211212 1212121 212, 121212121212 \u00e4\u00e412".repeat(20);
+        String other = latin1 + "\u6771\u4eac12 \u6771";
+        for (String text : new String[]{latin1, other}) {
+            NaiveSearch naive = new NaiveSearch(text);
+            VectorizedSearch vectorized = new VectorizedSearch(text);
+            for (String pattern : new String[]{"1212", "121", "2121212", "12 1", "1", "3", "\u00e4\u00e41", "\u6771", "2\u6771"}) {
+                assertEquals(naive.occurences(pattern), vectorized.occurences(pattern), pattern);
+                assertArrayEquals(naive.matchStream(pattern, TextSearcher.Overlap.overlapping).toArray(),
+                        vectorized.matchStream(pattern, TextSearcher.Overlap.overlapping).toArray(), pattern);
+            }
+        }
+    }
+
+    @Test
+    public void test_Suffix_Array_Search() {
+        setup(SortingAlgorithm.suffixArray);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Fm_Index_Search() {
+        setup(SortingAlgorithm.fmIndex);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Index_Positions() {
+        String text = "ABRACADABRA ABRACADABRA";
+        NaiveSearch naive = new NaiveSearch(text);
+        SuffixArraySearch suffixArray = new SuffixArraySearch(text);
+        FmIndexSearch fmIndex = new FmIndexSearch(text);
+        for (String pattern : new String[]{"ABRA", "A", "RA ", "ABRACADABRA", "X", "AX", "ABRACADABRAS"}) {
+            int[] expected = naive.matchStream(pattern, TextSearcher.Overlap.overlapping).toArray();
+            assertArrayEquals(expected, suffixArray.positions(pattern), pattern);
+            assertArrayEquals(expected, fmIndex.positions(pattern), pattern);
+            assertEquals(naive.indexOf(pattern, 5), suffixArray.indexOf(pattern, 5), pattern);
+            assertEquals(naive.indexOf(pattern, 5), fmIndex.indexOf(pattern, 5), pattern);
+        }
+        // "ANA" overlaps itself in "BANANA"
+        assertEquals(2, new SuffixArraySearch("BANANA").occurences("ANA"));
+        assertEquals(1, new FmIndexSearch("BANANA").occurences("ANA", TextSearcher.Overlap.nonOverlapping));
+
+        assertArrayEquals(new int[]{5, 3, 1, 0, 4, 2}, SuffixArraySearch.buildSuffixArray("BANANA"));
+        assertTrue(fmIndex.memoryFootprint() > 0);
+        assertTrue(suffixArray.memoryFootprint() >= 4L * text.length());
+    }
+
+    @Test
+    public void test_Packed_Text_Search() {
+        setup(SortingAlgorithm.packedText);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Packed_Text() {
+        String numbers = "0123456789, 0123 456,789 ".repeat(10);
+        PackedTextSearch packed = new PackedTextSearch(numbers, BoyerMooreSearch.Alphabet.onlyNumbers);
+        assertEquals(4, packed.getBitsPerSymbol());
+        // 16 symbols per long
+        assertEquals((numbers.length() + 15) / 16 * 8, packed.memoryFootprint());
+        assertEquals(numbers, packed.getText());
+        assertEquals(new NaiveSearch(numbers).occurences("0123"), packed.occurences("0123"));
+        assertEquals(0, packed.occurences("0A"));
+
+        // ⌈log2(∑)⌉ bits -> Symbols straddle two longs
+        assertEquals(7, new PackedTextSearch("", BoyerMooreSearch.Alphabet.ascii).getBitsPerSymbol());
+        assertEquals(6, new PackedTextSearch("", BoyerMooreSearch.Alphabet.numbersAndAllLetters).getBitsPerSymbol());
+        String text = "ALGORITHMEN UND DADATENSTRUKTUREN";
+        PackedTextSearch letters = new PackedTextSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+        assertEquals(5, letters.getBitsPerSymbol());
+        assertTrue(letters.memoryFootprint() < text.length());
+        assertEquals(text, letters.getText());
+        for (BoyerMooreSearch.Alphabet alphabet : new BoyerMooreSearch.Alphabet[]{BoyerMooreSearch.Alphabet.allLetters, BoyerMooreSearch.Alphabet.ascii}) {
+            PackedTextSearch packedText = new PackedTextSearch(text.repeat(3), alphabet);
+            assertEquals(text.repeat(3), packedText.getText(), alphabet.name());
+            for (String pattern : new String[]{"DATEN", "T", "EN", "NALGO", "REN"}) {
+                assertEquals(new NaiveSearch(text.repeat(3)).occurences(pattern), packedText.occurences(pattern), pattern);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PackedTextSearch("TEXT", BoyerMooreSearch.Alphabet.unicode));
+        assertThrows(IllegalArgumentException.class, () -> new PackedTextSearch("TEXT", BoyerMooreSearch.Alphabet.onlyNumbers));
+    }
+
+    @Test
+    public void test_Adaptive_Search() {
+        setup(SortingAlgorithm.adaptive);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+
+        // The alphabet is calibrated only once
+        AdaptiveSearch other = new AdaptiveSearch("DATEN", BoyerMooreSearch.Alphabet.upperCaseLetters);
+        assertSame(((AdaptiveSearch) textSorter).getProfile(), other.getProfile());
+        assertSame(other.getProfile(), AdaptiveSearch.Profile.calibrated(BoyerMooreSearch.Alphabet.upperCaseLetters));
+    }
+
+    @Test
+    public void test_Adaptive_Search_Profile(@TempDir Path directory) throws IOException {
+        AdaptiveSearch.Engine[] unique = new AdaptiveSearch.Engine[7];
+        AdaptiveSearch.Engine[] other = new AdaptiveSearch.Engine[7];
+        Arrays.fill(unique, AdaptiveSearch.Engine.advancedNaiveV1);
+        Arrays.fill(other, AdaptiveSearch.Engine.boyerMoore);
+        other[1] = AdaptiveSearch.Engine.vectorized;
+        AdaptiveSearch.Profile profile = new AdaptiveSearch.Profile(BoyerMooreSearch.Alphabet.upperCaseLetters, 8, unique, other);
+
+        AdaptiveSearch search = new AdaptiveSearch("ABABAB ABCABC AAA", profile);
+        // Repeated chars are never searched by the advanced naive search
+        assertEquals(AdaptiveSearch.Engine.boyerMoore, search.select("ABAB"));
+        assertEquals(AdaptiveSearch.Engine.advancedNaiveV1, search.select("ABC"));
+        assertEquals(AdaptiveSearch.Engine.vectorized, search.select("AA"));
+        assertEquals(AdaptiveSearch.Engine.naive, new AdaptiveSearch("ABAB", profile).select("ABC"));
+        assertEquals(2, search.occurences("ABAB"));
+        assertEquals(2, search.occurences("ABC"));
+        assertEquals(2, search.occurences("AA"));
+
+        Path file = directory.resolve("profile.properties");
+        profile.save(file);
+        AdaptiveSearch.Profile loaded = AdaptiveSearch.Profile.load(file);
+        assertEquals(profile.toProperties(), loaded.toProperties());
+
+        // The advanced naive search can't search every pattern
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveSearch.Profile(BoyerMooreSearch.Alphabet.upperCaseLetters, 8, other, unique));
+        Properties incomplete = profile.toProperties();
+        incomplete.remove("other.4");
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveSearch.Profile.fromProperties(incomplete));
+    }
+
+    @Test
+    public void test_Adaptive_Search_Without_Vector_API() {
+        // The tests run with the module, the JVM without it is simulated
+        assertTrue(AdaptiveSearch.Engine.vectorized.isAvailable());
+        assertFalse(AdaptiveSearch.Engine.vectorized.isAvailable(false));
+
+        // A saved profile with the vectorized engine falls back to a scalar engine
+        Properties properties = new AdaptiveSearch.Profile(BoyerMooreSearch.Alphabet.upperCaseLetters, 8,
+                fill(AdaptiveSearch.Engine.vectorized), fill(AdaptiveSearch.Engine.vectorized)).toProperties();
+        AdaptiveSearch.Profile loaded = AdaptiveSearch.Profile.fromProperties(properties, false);
+        AdaptiveSearch search = new AdaptiveSearch("ABABAB ABCABC AAA", loaded);
+        assertEquals(AdaptiveSearch.Engine.boyerMoore, search.select("AA"));
+        assertEquals(2, search.occurences("AA"));
+        assertEquals(AdaptiveSearch.Engine.vectorized, AdaptiveSearch.Profile.fromProperties(properties, true).select(2, false, 100));
+
+        // The calibration leaves it out
+        AdaptiveSearch.Profile calibrated = AdaptiveSearch.Profile.calibrate(BoyerMooreSearch.Alphabet.onlyNumbers, false);
+        assertFalse(calibrated.toProperties().containsValue(AdaptiveSearch.Engine.vectorized.name()), calibrated.toString());
+    }
+
+    private static AdaptiveSearch.Engine[] fill(AdaptiveSearch.Engine engine) {
+        AdaptiveSearch.Engine[] engines = new AdaptiveSearch.Engine[7];
+        Arrays.fill(engines, engine);
+        return engines;
+    }
+
+    @Test
+    public void test_Shift_Or_Search() {
+        setup(SortingAlgorithm.shiftOr);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Shift_Or_Long_And_Unicode_Patterns() {
+        // Patterns longer than one long
+        String text = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".repeat(8);
+        ShiftOrSearch shiftOr = new ShiftOrSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+        String pattern = text.substring(3, 3 + 100);
+        assertEquals(new NaiveSearch(text).occurences(pattern), shiftOr.occurences(pattern));
+        assertEquals(3, shiftOr.firstIndex(pattern));
+        assertEquals(8, shiftOr.occurences("XYZ"));
+
+        // \u4e00 and \u4f01 share one index of the unicode alphabet, the candidates are compared again
+        ShiftOrSearch unicode = new ShiftOrSearch("a\u4e00b a\u4f01b a\u4e00b", BoyerMooreSearch.Alphabet.unicode);
+        assertEquals(BoyerMooreSearch.Alphabet.unicode.index('\u4e00'), BoyerMooreSearch.Alphabet.unicode.index('\u4f01'));
+        assertEquals(2, unicode.occurences("a\u4e00b"));
+        assertEquals(1, unicode.occurences("a\u4f01b"));
+    }
+
+    @Test
+    public void test_Approximate_Search() {
+        String text = "ALGORITHMEN UND DADATENSTRUKTUREN";
+        // Without errors the end positions of the exact occurrences
+        ApproximateSearch exact = new ApproximateSearch(text, 0);
+        assertEquals(1, exact.occurences("DATEN"));
+        assertEquals(4, exact.occurences("T"));
+        assertEquals(3, exact.occurences("EN"));
+
+        // "DATEN" matches "DATN" with one deletion, "DATUM" with 2 substitutions
+        ApproximateSearch oneError = new ApproximateSearch("MEINE DATEN, DEINE DATN", 1);
+        List<Integer> ends = new ArrayList<>();
+        List<Integer> errors = new ArrayList<>();
+        oneError.forEachMatch("DATEN", (end, numberOfErrors) -> {
+            ends.add(end);
+            errors.add(numberOfErrors);
+        });
+        // "DATE", "DATEN" and "DATEN," end at 9, 10 and 11, "DATN" at 22
+        assertEquals(List.of(9, 10, 11, 22), ends);
+        assertEquals(List.of(1, 0, 1, 1), errors);
+        assertEquals(0, oneError.occurences("DATUM"));
+        assertEquals(2, new ApproximateSearch("MEINE DATEN, DEINE DATN", 2).countAtMost("DATUM", TextSearcher.Overlap.nonOverlapping, 5));
+        assertEquals(22, oneError.indexOf("DATEN", 12));
+
+        // Patterns longer than 64 chars
+        String longText = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".repeat(4);
+        // One substitution
+        String longPattern = longText.substring(0, 10) + "X" + longText.substring(11, 80);
+        assertEquals(0, new ApproximateSearch(longText, 2).occurences(longPattern.replace('L', 'Y').replace('M', 'Z')));
+        assertEquals(List.of(79), new ApproximateSearch(longText, 1).matchStream(longPattern, TextSearcher.Overlap.overlapping).boxed().toList());
+
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateSearch(text, -1));
+        assertThrows(IllegalArgumentException.class, () -> exact.occurences(""));
+    }
+
+    @Test
+    public void test_Wildcard_Search() {
+        setup(SortingAlgorithm.wildcard);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Wildcard_Patterns() {
+        WildcardSearch search = new WildcardSearch("ALGORITHMEN UND DADATENSTRUKTUREN, DATUM 2024", BoyerMooreSearch.Alphabet.numbersAndAllLetters);
+        assertEquals(1, search.occurences("DAT?N"));
+        assertEquals(2, search.occurences("DAT?"));
+        assertEquals(1, search.occurences("[0-9]{4}"));
+        assertEquals(3, search.occurences("[0-9]{2,4}"));
+        assertEquals(4, search.occurences("[^A-Z ,]"));
+        assertEquals(1, search.occurences("[A-Z]UR"));
+        // Both "DA" and "DAT" start at 18, but count once
+        assertEquals(3, search.occurences("D[AT]{1,3}"));
+        assertEquals(List.of(16, 18, 35), search.matchStream("D[AT]{1,3}", TextSearcher.Overlap.overlapping).boxed().toList());
+        assertEquals(18, search.indexOf("DAT?N", 17));
+        assertEquals(0, search.occurences("\\?"));
+
+        WildcardSearch.CompiledPattern compiledPattern = search.compile("DAT[EU]{0,1}[NM]");
+        assertEquals(5, compiledPattern.maxLength());
+        assertEquals(2, search.occurences(compiledPattern));
+
+        assertThrows(IllegalArgumentException.class, () -> search.occurences("[0-9"));
+        assertThrows(IllegalArgumentException.class, () -> search.occurences("A{2,1}"));
+        assertThrows(IllegalArgumentException.class, () -> search.occurences("A{0,3}"));
+        assertThrows(IllegalArgumentException.class, () -> new WildcardSearch("TEXT", BoyerMooreSearch.Alphabet.unicode));
+
+        // Repetitions are limited before they are expanded -> Rejected at once instead of building a huge DFA
+        assertEquals(0, search.occurences("A{" + WildcardSearch.MAX_LENGTH + "}"));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(IllegalArgumentException.class, () -> search.occurences("A{40000}"));
+            assertThrows(IllegalArgumentException.class, () -> search.occurences("BA{0,5000}"));
+            assertThrows(IllegalArgumentException.class, () -> search.occurences("A{2000000000}"));
+            assertThrows(IllegalArgumentException.class, () -> search.occurences("A{200}[0-9]{200}"));
+        });
+    }
+
+    @Test
+    public void test_Caching_Search() {
+        setup(SortingAlgorithm.caching);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+
+    @Test
+    public void test_Caching_Search_Statistics_And_Invalidation() {
+        BoyerMooreSearch boyerMooreSearch = new BoyerMooreSearch("ALGORITHMEN UND DATENSTRUKTUREN", BoyerMooreSearch.Alphabet.upperCaseLetters);
+        CachingSearch search = new CachingSearch(boyerMooreSearch);
+        assertEquals(1, search.occurences("DATEN"));
+        assertEquals(1, search.occurences("DATEN"));
+        assertEquals(1, search.occurences("DATEN", TextSearcher.Overlap.nonOverlapping));
+        BoundedCache.Statistics statistics = search.statistics();
+        assertEquals(1, statistics.hits());
+        assertEquals(2, statistics.misses());
+        assertEquals(2, statistics.size());
+        assertEquals(2 * CachingSearch.weight("DATEN"), statistics.weight());
+
+        // The new text invalidates the counts of the old one
+        boyerMooreSearch.setText("DATEN UND DATEN", BoyerMooreSearch.Alphabet.upperCaseLetters);
+        assertEquals(2, search.occurences("DATEN"));
+        assertEquals(1, search.statistics().size());
+
+        NaiveSearch naiveSearch = new NaiveSearch("ABABA");
+        CachingSearch cachingNaiveSearch = new CachingSearch(naiveSearch);
+        assertEquals(2, cachingNaiveSearch.occurences("ABA"));
+        assertEquals(1, cachingNaiveSearch.occurences("ABA", TextSearcher.Overlap.nonOverlapping));
+        naiveSearch.text = "ABA";
+        assertEquals(1, cachingNaiveSearch.occurences("ABA"));
+        assertEquals(0, cachingNaiveSearch.statistics().hits());
+    }
+
+    @Test
+    public void test_Bounded_Cache_Eviction() {
+        BoundedCache<String, Integer> leastRecentlyUsed = new BoundedCache<>(2, Long.MAX_VALUE, (key, value) -> 1, BoundedCache.EvictionPolicy.leastRecentlyUsed);
+        BoundedCache<String, Integer> leastFrequentlyUsed = new BoundedCache<>(2, Long.MAX_VALUE, (key, value) -> 1, BoundedCache.EvictionPolicy.leastFrequentlyUsed);
+        for (BoundedCache<String, Integer> cache : List.of(leastRecentlyUsed, leastFrequentlyUsed)) {
+            cache.put("A", 1);
+            cache.put("B", 2);
+            cache.get("A");
+            cache.get("A");
+            cache.get("B");
+            cache.put("C", 3);
+        }
+        // B was used last, A was used most often
+        assertNull(leastRecentlyUsed.get("A"));
+        assertEquals(2, leastRecentlyUsed.get("B"));
+        assertEquals(1, leastFrequentlyUsed.get("A"));
+        assertNull(leastFrequentlyUsed.get("B"));
+        assertEquals(1, leastFrequentlyUsed.statistics().evictions());
+
+        BoundedCache<String, Integer> weighted = new BoundedCache<>(100, 10, (key, value) -> key.length(), BoundedCache.EvictionPolicy.leastRecentlyUsed);
+        weighted.put("AAAA", 1);
+        weighted.put("BBBB", 2);
+        weighted.put("CCCC", 3);
+        assertEquals(2, weighted.size());
+        assertEquals(8, weighted.weight());
+        assertNull(weighted.get("AAAA"));
+        // Heavier than the whole cache
+        weighted.put("DDDDDDDDDDDD", 4);
+        assertNull(weighted.get("DDDDDDDDDDDD"));
+        assertEquals(0.0, weighted.statistics().hitRate());
+
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, Integer>(0));
+    }
+
+    @Test
+    public void test_Search_Counters() {
+        String text = "ALGORITHMEN UND DATENSTRUKTUREN";
+        SearchCounters naiveCounters = new SearchCounters();
+        NaiveSearch naiveSearch = new NaiveSearch(text);
+        naiveSearch.setProbe(naiveCounters);
+        assertEquals(1, naiveSearch.occurences("DATEN"));
+
+        SearchCounters boyerMooreCounters = new SearchCounters();
+        BoyerMooreSearch boyerMooreSearch = new BoyerMooreSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+        boyerMooreSearch.setProbe(boyerMooreCounters);
+        assertEquals(1, boyerMooreSearch.occurences("DATEN"));
+
+        assertEquals("NaiveSearch", naiveCounters.getAlgorithm());
+        // Every window, shifted by one
+        assertEquals(text.length() - 5, naiveCounters.shifts());
+        assertEquals(1.0, naiveCounters.averageShift());
+        assertEquals(1, boyerMooreCounters.matches());
+        assertTrue(boyerMooreCounters.averageShift() > 1);
+        assertTrue(boyerMooreCounters.comparisons() < naiveCounters.comparisons());
+        assertTrue(boyerMooreCounters.skippedChars() > 0);
+
+        // indexOf doesn't start a search, but its steps are counted
+        boyerMooreCounters.reset();
+        assertEquals(16, boyerMooreSearch.indexOf("DATEN", 0));
+        assertEquals(0, boyerMooreCounters.searches());
+        assertEquals(1, boyerMooreCounters.matches());
+    }
+
+    @Test
+    public void test_Search_Metrics(@TempDir Path directory) throws IOException {
+        List<SearchCounters> searches = new ArrayList<>();
+        SearchMetrics.Listener listener = searches::add;
+        SearchMetrics.addListener(listener);
+        try {
+            new HorspoolSearch("ALGORITHMEN UND DATENSTRUKTUREN", BoyerMooreSearch.Alphabet.upperCaseLetters).occurences("DATEN");
+            new AdvancedNaiveSearchV2("ALGORITHMEN UND DATENSTRUKTUREN").occurences("DATEN");
+        }
+        finally {
+            SearchMetrics.removeListener(listener);
+        }
+        new NaiveSearch("ALGORITHMEN UND DATENSTRUKTUREN").occurences("DATEN");
+        assertEquals(List.of("HorspoolSearch", "AdvancedNaiveSearchV2"), searches.stream().map(SearchCounters::getAlgorithm).toList());
+        assertEquals(1, searches.get(0).matches());
+
+        Path file = directory.resolve("search.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("search.Search");
+            recording.start();
+            new SundaySearch("ALGORITHMEN UND DATENSTRUKTUREN", BoyerMooreSearch.Alphabet.upperCaseLetters).occurences("EN");
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        assertEquals("SundaySearch", events.get(0).getString("algorithm"));
+        assertEquals(3, events.get(0).getLong("matches"));
+        assertFalse(SearchMetrics.isEnabled());
+    }
+
+    @Test
+    public void test_Search_Trace(@TempDir Path directory) throws IOException, InterruptedException {
+        String text = "ALGORITHMEN UND DATENSTRUKTUREN";
+        BoyerMooreSearch boyerMooreSearch = new BoyerMooreSearch(text, BoyerMooreSearch.Alphabet.upperCaseLetters);
+        SearchTrace trace = new SearchTrace(1024);
+        boyerMooreSearch.setProbe(trace);
+        boyerMooreSearch.occurences("DATEN");
+
+        SearchCounters counters = new SearchCounters();
+        boyerMooreSearch.setProbe(counters);
+        boyerMooreSearch.occurences("DATEN");
+        SearchCounters replayed = new SearchCounters();
+        trace.replay(replayed);
+        assertEquals(counters.toString(), replayed.toString());
+        assertEquals(0, trace.dropped());
+
+        Path file = directory.resolve("search.trace");
+        trace.write(file);
+        SearchTrace read = SearchTrace.read(file);
+        assertEquals("BoyerMooreSearch", read.getAlgorithm());
+        assertEquals("DATEN", read.getPattern());
+        SearchCounters replayedFromFile = new SearchCounters();
+        read.replay(replayedFromFile);
+        assertEquals(counters.toString(), replayedFromFile.toString());
+
+        // The ring buffer keeps the newest steps
+        SearchTrace smallTrace = new SearchTrace(4);
+        boyerMooreSearch.setProbe(smallTrace);
+        boyerMooreSearch.occurences("DATEN");
+        assertEquals(4, smallTrace.size());
+        assertEquals(trace.size() - 4, smallTrace.dropped());
+        List<String> allSteps = steps(trace);
+        assertEquals(allSteps.subList(allSteps.size() - 4, allSteps.size()), steps(smallTrace));
+        assertEquals("end", allSteps.get(allSteps.size() - 1));
+        assertTrue(allSteps.contains("match 16"));
+
+        java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+        trace.visualise(text, "DATEN", new java.io.PrintStream(output, true, StandardCharsets.UTF_8), 0);
+        assertTrue(output.toString(StandardCharsets.UTF_8).contains("                DATEN comparisons: 5; shift: "));
+        assertThrows(IllegalArgumentException.class, () -> new SearchTrace(0));
+
+        // Visualising records into its own trace without swapping the probe of the searcher, which still sees the search
+        SearchCounters shared = new SearchCounters();
+        boyerMooreSearch.setProbe(shared);
+        boyerMooreSearch.visualiseComparisons("DATEN", 0);
+        assertSame(shared, boyerMooreSearch.getProbe());
+        assertEquals(1, shared.searches());
+    }
+
+    private static List<String> steps(SearchTrace trace) {
+        List<String> steps = new ArrayList<>();
+        trace.replay(new SearchProbe() {
+            @Override
+            public void onComparison(int positionInText, int positionInPattern, boolean match) {
+                steps.add("comparison " + positionInText + " " + positionInPattern + " " + match);
+            }
+
+            @Override
+            public void onShift(int windowStart, int distance) {
+                steps.add("shift " + windowStart + " " + distance);
+            }
+
+            @Override
+            public void onMatch(int position) {
+                steps.add("match " + position);
+            }
+
+            @Override
+            public void onEnd() {
+                steps.add("end");
+            }
+        });
+        return steps;
+    }
+
+    @Test
+    public void test_Search_Service() throws Exception {
+        String text = "ALGORITHMEN UND DATENSTRUKTUREN, DATEN UND DATUM";
+        try (SearchService service = new SearchService(text, Duration.ofMillis(20), 1024)) {
+            List<String> patterns = List.of("DATEN", "EN", "T", "DAT", "UND", "X", "DATEN");
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 100; i++) {
+                    String pattern = patterns.get(i % patterns.size());
+                    results.add(CompletableFuture.supplyAsync(() -> service.occurences(pattern), clients));
+                }
+                for (int i = 0; i < results.size(); i++) {
+                    assertEquals(new NaiveSearch(text).occurences(patterns.get(i % patterns.size())), results.get(i).get());
+                }
+            }
+            SearchService.Statistics statistics = service.statistics();
+            assertEquals(100, statistics.queries());
+            // Queries arriving together share a pass over the text
+            assertTrue(statistics.batches() < 100);
+            assertTrue(statistics.p50().compareTo(statistics.p99()) <= 0);
+            assertThrows(IllegalArgumentException.class, () -> service.occurences(""));
+
+            int port = service.listen(0);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+                out.println("DATEN");
+                assertEquals("2", in.readLine());
+                out.println("");
+                assertTrue(in.readLine().startsWith("ERROR"));
+            }
+        }
+    }
+
+    @Test
+    public void test_Append_Only_Standing_Queries() {
+        AppendOnlySearch search = new AppendOnlySearch(BoyerMooreSearch.Alphabet.upperCaseLetters);
+        List<Integer> positions = new ArrayList<>();
+        AppendOnlySearch.StandingQuery daten = search.register("DATEN", TextSearcher.Overlap.overlapping, (query, position) -> positions.add(position));
+        AppendOnlySearch.StandingQuery overlapping = search.register("ABA");
+        AppendOnlySearch.StandingQuery nonOverlapping = search.register("ABA", TextSearcher.Overlap.nonOverlapping, (query, position) -> { });
+
+        search.append("ALGORITHMEN UND DA");
+        assertEquals(0, daten.occurrences());
+        // The occurrence crosses the end of the previous chunk
+        search.append("TENSTRUKTUREN ABAB");
+        assertEquals(1, daten.occurrences());
+        assertEquals(List.of(16), positions);
+        search.append("ABA");
+        assertEquals(3, overlapping.occurrences());
+        assertEquals(2, nonOverlapping.occurrences());
+
+        // Registered later -> The current text is searched once
+        AppendOnlySearch.StandingQuery en = search.register("EN");
+        assertEquals(3, en.occurrences());
+        search.append(" DATEN");
+        assertEquals(4, en.occurrences());
+        assertEquals(List.of(16, 40), positions);
+        assertEquals(new NaiveSearch(search.getText()).occurences("EN"), en.occurrences());
+
+        search.unregister(en);
+        search.append("EN");
+        assertEquals(4, en.occurrences());
+        assertThrows(IllegalArgumentException.class, () -> search.append("daten"));
+        assertThrows(IllegalArgumentException.class, () -> search.register(""));
+    }
+
+    @Test
+    public void test_Two_Way_Search() {
+        setup(SortingAlgorithm.twoWay);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Two_Way_Adversarial_And_Periodic_Patterns() {
+        // Adversarial for the naive and the Boyer-Moore searches: n * m comparisons
+        String text = "a".repeat(10000);
+        TwoWaySearch twoWay = new TwoWaySearch(text);
+        assertEquals(0, twoWay.occurences("b" + "a".repeat(99)));
+        assertEquals(0, twoWay.occurences("a".repeat(99) + "b"));
+        assertEquals(10000 - 99, twoWay.occurences("a".repeat(100)));
+
+        // Periodic pattern, period 2
+        TwoWaySearch.Factorization factorization = TwoWaySearch.compile("abababa");
+        assertTrue(factorization.isPeriodic());
+        assertEquals(2, factorization.getPeriod());
+        TwoWaySearch periodic = new TwoWaySearch("abababababxabababa");
+        assertEquals(3, periodic.occurences(factorization));
+        assertEquals(11, periodic.indexOf(factorization, 4));
+        assertEquals(-1, periodic.indexOf(factorization, 12));
+
+        // Non-periodic patterns and any chars, compared with the naive search
+        String[] patterns = {"DATEN", "ADA", "UREN", "N U", "\u4e00\u4e01", "ALGORITHMEN UND DADATENSTRUKTUREN"};
+        String mixed = "ALGORITHMEN UND DADATENSTRUKTUREN \u4e00\u4e01\u4e00\u4e01";
+        for (String pattern : patterns) {
+            assertEquals(new NaiveSearch(mixed).occurences(pattern), new TwoWaySearch(mixed).occurences(pattern));
+        }
+        // Like ShiftOrSearch, the empty pattern occurs at every position including the end
+        assertEquals(4, new TwoWaySearch("abc").occurences(""));
+    }
+
+    @Test
+    public void test_Kmp_Search() {
+        setup(SortingAlgorithm.kmp);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Kmp_Repeated_Characters() {
+        // Rejected by the advanced naive searches
+        String text = "ABABABCABABA AAAA";
+        assertThrows(IllegalArgumentException.class, () -> new AdvancedNaiveSearchV1(text).occurences("ABA"));
+        assertThrows(IllegalArgumentException.class, () -> new AdvancedNaiveSearchV2(text).occurences("ABA"));
+        KmpSearch kmp = new KmpSearch(text);
+        for (String pattern : new String[] {"ABA", "ABAB", "ABABC", "AA", "A", "C", "BABA", "AAAAA", text}) {
+            assertEquals(new NaiveSearch(text).occurences(pattern), kmp.occurences(pattern));
+        }
+        assertEquals(7, kmp.indexOf("ABA", 5));
+        assertEquals(List.of(0, 2, 7, 9), kmp.matchStream("ABA", TextSearcher.Overlap.overlapping).boxed().toList());
+        assertArrayEquals(new int[] {0, 0, 1, 2, 3, 0}, KmpSearch.failureTable("ABABAC"));
+
+        // The dependency check without boxing, also for long patterns
+        assertTrue(AdvancedNaiveSearchV1.isDependencySatisfied("ALGORITHMEN"));
+        assertFalse(AdvancedNaiveSearchV1.isDependencySatisfied("DATENSTRUKTUREN"));
+        StringBuilder unique = new StringBuilder();
+        for (char c = 0; c < 100; c++) {
+            unique.append(c);
+        }
+        assertTrue(AdvancedNaiveSearchV1.isDependencySatisfied(unique.toString()));
+        assertFalse(AdvancedNaiveSearchV1.isDependencySatisfied(unique.append((char) 42).toString()));
+
+        // The step counts of the single pointer: Every text char is compared at most twice
+        SearchCounters counters = new SearchCounters();
+        KmpSearch adversarial = new KmpSearch("A".repeat(1000));
+        adversarial.setProbe(counters);
+        assertEquals(0, adversarial.occurences("A".repeat(9) + "B"));
+        assertTrue(counters.comparisons() <= 2000);
+    }
+
+    @Test
+    public void test_Rabin_Karp_Search() {
+        setup(SortingAlgorithm.rabinKarp);
+        String pattern1 = "DATEN";
+        String pattern2 = "T";
+        String pattern3 = "EN";
+
+        // One Occurence
+        int occurences1 = textSorter.occurences(pattern1);
+        assertEquals(1,occurences1);
+
+        // Multiple occurences
+        int occurences2 = textSorter.occurences(pattern2);
+        assertEquals(4,occurences2);
+
+        // Multiple occurence & at the end
+        int occurences3 = textSorter.occurences(pattern3);
+        assertEquals(3, occurences3);
+    }
+
+    @Test
+    public void test_Rabin_Karp_Many_Tokens() {
+        // Fixed-length tokens, compared with the automaton
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            tokens.add(Long.toHexString(random.nextLong() | Long.MIN_VALUE));
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append(i % 10 == 0 ? tokens.get(random.nextInt(tokens.size())) : Long.toHexString(random.nextLong() | Long.MIN_VALUE)).append(' ');
+        }
+        RabinKarpSearch rabinKarp = new RabinKarpSearch(text.toString());
+        RabinKarpSearch.Fingerprints fingerprints = RabinKarpSearch.compile(tokens);
+        assertEquals(16, fingerprints.getPatternLength());
+        assertTrue(fingerprints.capacity() <= 4 * tokens.size());
+        assertArrayEquals(new AhoCorasickSearch(text.toString()).occurences(AhoCorasickSearch.compile(tokens, null)), rabinKarp.occurences(fingerprints));
+
+        // Overlapping occurrences, duplicates and positions in the order of the text
+        RabinKarpSearch abc = new RabinKarpSearch("ABABAB CAB");
+        RabinKarpSearch.Fingerprints patterns = RabinKarpSearch.compile(List.of("ABA", "BAB", "CAB", "ABA", "XYZ"));
+        assertArrayEquals(new int[] {2, 2, 1, 2, 0}, abc.occurences(patterns));
+        List<Integer> positions = new ArrayList<>();
+        abc.forEachMatch(patterns, (patternIndex, position) -> positions.add(position));
+        assertEquals(List.of(0, 1, 2, 3, 7), positions);
+        assertEquals(7, abc.indexOf(patterns, 4));
+        assertEquals(-1, abc.indexOf(patterns, 8));
+
+        assertThrows(IllegalArgumentException.class, () -> RabinKarpSearch.compile(List.of("ABC", "AB")));
+        assertThrows(IllegalArgumentException.class, () -> RabinKarpSearch.compile(List.of("")));
+    }
+
+    @Test
+    public void test_Case_Insensitive_Search() {
+        String text = "Algorithmen und Datenstrukturen, DATEN und daten";
+        List<BoyerMooreSearch> searchers = List.of(
+                new BoyerMooreSearch(text, BoyerMooreSearch.Alphabet.allLetters, true),
+                new BoyerMooreGoodSuffixSearch(text, BoyerMooreSearch.Alphabet.allLetters, true),
+                new HorspoolSearch(text, BoyerMooreSearch.Alphabet.allLetters, true),
+                new SundaySearch(text, BoyerMooreSearch.Alphabet.numbersAndAllLetters, true));
+        for (BoyerMooreSearch searcher : searchers) {
+            assertTrue(searcher.isIgnoreCase());
+            assertEquals(3, searcher.occurences("daten"));
+            assertEquals(3, searcher.occurences("DaTeN"));
+            assertEquals(5, searcher.occurences("EN"));
+            assertEquals(2, searcher.occurences("und"));
+            assertEquals(16, searcher.indexOf("Daten", 12));
+            assertEquals(33, searcher.indexOf("Daten", 17));
+            // The text isn't copied
+            assertSame(text, searcher.getText());
+        }
+        assertEquals(1, new BoyerMooreSearch(text, BoyerMooreSearch.Alphabet.allLetters).occurences("daten"));
+
+        // Lower case patterns in an upper case text, the shifts of both cases are equal
+        BoyerMooreSearch upperCase = new BoyerMooreSearch("ALGORITHMEN UND DADATENSTRUKTUREN", BoyerMooreSearch.Alphabet.upperCaseLetters, true);
+        assertEquals(1, upperCase.occurences("daten"));
+        BoyerMooreSearch.CompiledPattern ignoringCase = BoyerMooreSearch.compile("daTen", BoyerMooreSearch.Alphabet.allLetters, true);
+        assertEquals("daten", ignoringCase.getSearchedPattern());
+        assertEquals(ignoringCase.shift('T'), ignoringCase.shift('t'));
+        assertEquals(1, ignoringCase.shift('E'));
+        assertNotSame(ignoringCase, BoyerMooreSearch.compile("daTen", BoyerMooreSearch.Alphabet.allLetters));
+
+        // Only ASCII letters are folded
+        assertEquals('a', BoyerMooreSearch.foldCase('A'));
+        assertEquals('@', BoyerMooreSearch.foldCase('@'));
+        assertEquals('[', BoyerMooreSearch.foldCase('['));
+        assertEquals('\u00c4', BoyerMooreSearch.foldCase('\u00c4'));
+    }
+}